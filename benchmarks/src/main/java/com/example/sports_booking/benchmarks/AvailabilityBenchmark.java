@@ -0,0 +1,100 @@
+package com.example.sports_booking.benchmarks;
+
+import com.example.sports_booking.service.AvailabilityService;
+import com.example.sports_booking.service.DayMatch;
+import com.example.sports_booking.service.SlotAvailabilityIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * First page of {@link AvailabilityService#findAvailableVenues} over a one-day window,
+ * with and without a sport filter, and of {@link AvailabilityService#findFreeWindows} answered
+ * from {@link SlotAvailabilityIndex} or by scanning slots.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class AvailabilityBenchmark {
+
+    @Param({"2000"})
+    public int venues;
+
+    @Param({"48"})
+    public int slotsPerVenue;
+
+    /** Every n-th slot is seeded as booked. */
+    @Param({"3"})
+    public int bookEvery;
+
+    @Param({"500"})
+    public int limit;
+
+    /** Whether free-window queries are answered from the bitmap index or by scanning slots. */
+    @Param({"true", "false"})
+    public boolean indexed;
+
+    private ConfigurableApplicationContext context;
+    private AvailabilityService availabilityService;
+    private final LocalDateTime from = BenchmarkApplication.FIRST_SLOT;
+    private final LocalDateTime to = BenchmarkApplication.FIRST_SLOT.plusDays(1);
+    private final LocalDate day = BenchmarkApplication.FIRST_SLOT.toLocalDate();
+
+    @Setup(Level.Trial)
+    public void start() {
+        // The seeded slots start years ahead, so the index horizon has to reach them
+        context = BenchmarkApplication.start(
+                "availability-index.enabled=" + indexed, "availability-index.horizon-days=1500");
+        BenchmarkApplication.seed(context, venues, slotsPerVenue, bookEvery);
+        if (indexed) {
+            context.getBean(SlotAvailabilityIndex.class).load();
+        }
+        availabilityService = context.getBean(AvailabilityService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object allSports() {
+        return availabilityService.findAvailableVenues(null, from, to, null, null, limit);
+    }
+
+    @Benchmark
+    public Object singleSport() {
+        return availabilityService.findAvailableVenues(BenchmarkApplication.sportId(1), from, to, null, null, limit);
+    }
+
+    @Benchmark
+    public Object freeWindowAnyDay() {
+        return availabilityService.findFreeWindows(null, day, day.plusDays(1), LocalTime.of(13, 0), LocalTime.of(15, 0),
+                DayMatch.ANY, null, null, limit);
+    }
+
+    @Benchmark
+    public Object freeWindowSingleSport() {
+        return availabilityService.findFreeWindows(BenchmarkApplication.sportId(1), day, day, LocalTime.of(13, 0),
+                LocalTime.of(15, 0), DayMatch.ALL, null, null, limit);
+    }
+}
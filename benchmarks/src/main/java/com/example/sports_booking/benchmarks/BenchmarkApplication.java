@@ -0,0 +1,120 @@
+package com.example.sports_booking.benchmarks;
+
+import com.example.sports_booking.SportsBookingApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Starts the service without a web server against a private in-memory H2 database in MySQL mode
+ * and seeds it with a configurable catalog.
+ */
+final class BenchmarkApplication {
+
+    static final LocalDateTime FIRST_SLOT = LocalDateTime.of(2030, 1, 1, 0, 0);
+    static final int SPORTS = 10;
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String... properties) {
+        return start(WebApplicationType.NONE, properties);
+    }
+
+    /** Starts the service with its embedded web server on a random port, see {@link #port}. */
+    static ConfigurableApplicationContext startServer(String... properties) {
+        List<String> all = new ArrayList<>(List.of(properties));
+        all.add("server.port=0");
+        return start(WebApplicationType.SERVLET, all.toArray(String[]::new));
+    }
+
+    static int port(ConfigurableApplicationContext context) {
+        return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    private static ConfigurableApplicationContext start(WebApplicationType type, String... properties) {
+        Map<String, String> all = new LinkedHashMap<>();
+        for (String property : List.of(
+                "spring.datasource.url=jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "spring.datasource.driver-class-name=org.h2.Driver",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "spring.datasource.hikari.maximum-pool-size=32",
+                "spring.jpa.hibernate.ddl-auto=create",
+                "spring.jpa.properties.hibernate.format_sql=false",
+                "spring.jpa.properties.hibernate.use_sql_comments=false",
+                "spring.jpa.open-in-view=false",
+                "sports.sync.enabled=false",
+                "streaming.fetch-size=500",
+                "logging.level.root=ERROR")) {
+            put(all, property);
+        }
+        // Benchmark-specific properties override the defaults above
+        for (String property : properties) {
+            put(all, property);
+        }
+        return new SpringApplicationBuilder(SportsBookingApplication.class)
+                .web(type)
+                .run(all.entrySet().stream()
+                        .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                        .toArray(String[]::new));
+    }
+
+    private static void put(Map<String, String> properties, String property) {
+        int separator = property.indexOf('=');
+        properties.put(property.substring(0, separator), property.substring(separator + 1));
+    }
+
+    /**
+     * Inserts {@code venues} venues spread over {@value #SPORTS} sports, each with {@code slotsPerVenue}
+     * consecutive one-hour slots starting at {@link #FIRST_SLOT}. Every {@code bookEvery}-th slot is booked.
+     * On a fresh database venue {@code v} (1-based) owns slot ids {@code (v - 1) * slotsPerVenue + 1} onwards.
+     */
+    static void seed(ConfigurableApplicationContext context, int venues, int slotsPerVenue, int bookEvery) {
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        List<Object[]> venueRows = new ArrayList<>(venues);
+        for (int v = 1; v <= venues; v++) {
+            venueRows.add(new Object[]{"Venue " + v, "Area " + (v % 50), sportId(v), now, now});
+        }
+        jdbc.batchUpdate("INSERT INTO venue (name, location, sport_id, created_at, updated_at) VALUES (?, ?, ?, ?, ?)",
+                venueRows);
+
+        List<Object[]> slotRows = new ArrayList<>(slotsPerVenue);
+        List<Object[]> bookingRows = new ArrayList<>();
+        long slotId = 0;
+        for (int v = 1; v <= venues; v++) {
+            slotRows.clear();
+            bookingRows.clear();
+            for (int i = 0; i < slotsPerVenue; i++) {
+                slotId++;
+                boolean booked = bookEvery > 0 && slotId % bookEvery == 0;
+                slotRows.add(new Object[]{v, Timestamp.valueOf(FIRST_SLOT.plusHours(i)),
+                        Timestamp.valueOf(FIRST_SLOT.plusHours(i + 1)), booked ? "BOOKED" : "AVAILABLE", now, now});
+                if (booked) {
+                    bookingRows.add(new Object[]{slotId, "seed-user-" + (slotId % 997), "CONFIRMED", now, now});
+                }
+            }
+            jdbc.batchUpdate("INSERT INTO slot (venue_id, start_time, end_time, status, created_at, updated_at) " +
+                    "VALUES (?, ?, ?, ?, ?, ?)", slotRows);
+            if (!bookingRows.isEmpty()) {
+                jdbc.batchUpdate("INSERT INTO booking (slot_id, user_name, status, created_at, updated_at) " +
+                        "VALUES (?, ?, ?, ?, ?)", bookingRows);
+            }
+        }
+    }
+
+    static String sportId(int venue) {
+        return "sport-" + (venue % SPORTS);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.sports_booking.benchmarks;
+
+import com.example.sports_booking.dto.BookingDTO;
+import com.example.sports_booking.dto.CreateBookingRequest;
+import com.example.sports_booking.exception.BookingException;
+import com.example.sports_booking.exception.SlotUnavailableException;
+import com.example.sports_booking.service.BookingService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Book-then-cancel round trips through {@link BookingService}, with every thread either racing for the
+ * same slot or working on a slot of its own. Wins and losses are reported as secondary counters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(8)
+public class BookingBenchmark {
+
+    @Param({"PESSIMISTIC", "CONDITIONAL"})
+    public String claimMode;
+
+    @Param({"SAME_SLOT", "DISJOINT_SLOTS"})
+    public String contention;
+
+    @Param({"200"})
+    public int venues;
+
+    @Param({"50"})
+    public int slotsPerVenue;
+
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+    private final AtomicInteger threads = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkApplication.start("booking.claim-mode=" + claimMode);
+        BenchmarkApplication.seed(context, venues, slotsPerVenue, 0);
+        bookingService = context.getBean(BookingService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+        long slotId;
+
+        @Setup(Level.Trial)
+        public void pickSlot(BookingBenchmark benchmark) {
+            int thread = benchmark.threads.getAndIncrement();
+            slotId = "SAME_SLOT".equals(benchmark.contention)
+                    ? 1
+                    : (long) (thread % benchmark.venues) * benchmark.slotsPerVenue + 1;
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Outcomes {
+        public long won;
+        public long lost;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            won = 0;
+            lost = 0;
+        }
+    }
+
+    @Benchmark
+    public boolean bookAndCancel(Client client, Outcomes outcomes) {
+        try {
+            BookingDTO booking = bookingService.book(new CreateBookingRequest(client.slotId, "bench-user"));
+            bookingService.cancel(booking.getId());
+            outcomes.won++;
+            return true;
+        } catch (BookingException | SlotUnavailableException e) {
+            outcomes.lost++;
+            return false;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.sports_booking.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cheap {@code GET /venues/{id}} reads running alongside slow availability scans over HTTP, with request
+ * handling on a deliberately small Tomcat platform-thread pool vs. on virtual threads. Compare the latency
+ * distribution of {@code fastVenueRead} between the two modes: on platform threads it queues behind the scans.
+ * <p>
+ * With the default embedded H2 the "database" burns the same CPUs as the web layer, so the scans are CPU-bound
+ * and virtual threads have little waiting to overlap. Point {@code jdbcUrl} at a scratch MySQL database
+ * (its tables are recreated) to measure the I/O-bound case they are meant for.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class MixedLoadBenchmark {
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    /** Tomcat worker threads when running on platform threads. */
+    @Param({"16"})
+    public int tomcatThreads;
+
+    @Param({"10"})
+    public int poolSize;
+
+    /** Empty for embedded H2, otherwise the URL of a scratch MySQL database. */
+    @Param({""})
+    public String jdbcUrl;
+
+    @Param({"root"})
+    public String jdbcUser;
+
+    @Param({"root"})
+    public String jdbcPassword;
+
+    @Param({"500"})
+    public int venues;
+
+    @Param({"48"})
+    public int slotsPerVenue;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient http;
+    private URI availability;
+    private String base;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        List<String> properties = new ArrayList<>(List.of(
+                "spring.threads.virtual.enabled=" + virtualThreads,
+                "server.tomcat.threads.max=" + tomcatThreads,
+                "spring.datasource.hikari.maximum-pool-size=" + poolSize));
+        if (!jdbcUrl.isEmpty()) {
+            properties.add("spring.datasource.url=" + jdbcUrl);
+            properties.add("spring.datasource.driver-class-name=com.mysql.cj.jdbc.Driver");
+            properties.add("spring.datasource.username=" + jdbcUser);
+            properties.add("spring.datasource.password=" + jdbcPassword);
+        }
+        context = BenchmarkApplication.startServer(properties.toArray(String[]::new));
+        BenchmarkApplication.seed(context, venues, slotsPerVenue, 4);
+
+        base = "http://localhost:" + BenchmarkApplication.port(context);
+        availability = URI.create(base + "/venues/available?startTime=2030-01-01%2000:00:00" +
+                "&endTime=2030-01-02%2000:00:00&limit=2000");
+        http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        for (int v = 1; v <= venues; v++) {
+            get(URI.create(base + "/venues/" + v));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(24)
+    public int slowAvailabilityScan() throws Exception {
+        return get(availability);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(4)
+    public int fastVenueRead() throws Exception {
+        return get(URI.create(base + "/venues/" + (ThreadLocalRandom.current().nextInt(venues) + 1)));
+    }
+
+    private int get(URI uri) throws IOException, InterruptedException {
+        HttpResponse<Void> response = http.send(HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).build(),
+                HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(uri + " returned " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+}
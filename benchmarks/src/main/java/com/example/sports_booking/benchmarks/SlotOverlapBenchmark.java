@@ -0,0 +1,88 @@
+package com.example.sports_booking.benchmarks;
+
+import com.example.sports_booking.dto.CreateSlotRequest;
+import com.example.sports_booking.exception.SlotOverlapException;
+import com.example.sports_booking.service.SlotService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link SlotService#addSlot} on venues that already hold {@code slotsPerVenue} slots, both for inserts
+ * that pass the overlap check and for requests it rejects.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SlotOverlapBenchmark {
+
+    @Param({"50"})
+    public int venues;
+
+    @Param({"2000"})
+    public int slotsPerVenue;
+
+    private ConfigurableApplicationContext context;
+    private SlotService slotService;
+    private final AtomicInteger threads = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkApplication.start();
+        BenchmarkApplication.seed(context, venues, slotsPerVenue, 0);
+        slotService = context.getBean(SlotService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Venue {
+        long venueId;
+        LocalDateTime nextFree;
+
+        @Setup(Level.Trial)
+        public void pickVenue(SlotOverlapBenchmark benchmark) {
+            venueId = benchmark.threads.getAndIncrement() % benchmark.venues + 1;
+            nextFree = BenchmarkApplication.FIRST_SLOT.plusHours(benchmark.slotsPerVenue);
+        }
+    }
+
+    @Benchmark
+    public Object addNonOverlapping(Venue venue) {
+        LocalDateTime start = venue.nextFree;
+        venue.nextFree = start.plusMinutes(30);
+        return slotService.addSlot(venue.venueId, new CreateSlotRequest(start, venue.nextFree));
+    }
+
+    @Benchmark
+    public boolean rejectOverlapping(Venue venue) {
+        LocalDateTime start = BenchmarkApplication.FIRST_SLOT.plusMinutes(30);
+        try {
+            slotService.addSlot(venue.venueId, new CreateSlotRequest(start, start.plusHours(1)));
+            return true;
+        } catch (SlotOverlapException e) {
+            return false;
+        }
+    }
+}
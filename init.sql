@@ -19,6 +19,8 @@ CREATE TABLE IF NOT EXISTS venue (
     name VARCHAR(150) NOT NULL,
     location VARCHAR(200) NOT NULL,
     sport_id VARCHAR(50) NOT NULL,
+    latitude DOUBLE NULL,
+    longitude DOUBLE NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     INDEX idx_sport_id (sport_id)
@@ -30,6 +32,9 @@ CREATE TABLE IF NOT EXISTS slot (
     start_time TIMESTAMP NOT NULL,
     end_time TIMESTAMP NOT NULL,
     status VARCHAR(20) NOT NULL DEFAULT 'AVAILABLE',
+    hold_token VARCHAR(36),
+    hold_user_name VARCHAR(255),
+    hold_expires_at TIMESTAMP NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     UNIQUE KEY uk_venue_slot_time (venue_id, start_time, end_time),
@@ -37,7 +42,9 @@ CREATE TABLE IF NOT EXISTS slot (
     INDEX idx_venue_id (venue_id),
     INDEX idx_status (status),
     INDEX idx_venue_time (venue_id, start_time, end_time),
-    INDEX idx_slot_time_range (start_time, end_time)
+    INDEX idx_slot_time_range (start_time, end_time),
+    INDEX idx_slot_status_time (status, start_time),
+    INDEX idx_slot_hold_expiry (status, hold_expires_at)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
 CREATE TABLE IF NOT EXISTS booking (
@@ -51,5 +58,59 @@ CREATE TABLE IF NOT EXISTS booking (
     CONSTRAINT fk_booking_slot FOREIGN KEY (slot_id) REFERENCES slot(id) ON DELETE RESTRICT,
     INDEX idx_slot_id (slot_id),
     INDEX idx_user_name (user_name),
-    INDEX idx_booking_status (status)
+    INDEX idx_booking_status (status),
+    INDEX idx_booking_created (created_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Booking and slot changes written with the change itself and deleted once relayed downstream
+CREATE TABLE IF NOT EXISTS outbox_event (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    event_type VARCHAR(30) NOT NULL,
+    venue_id BIGINT NOT NULL,
+    slot_id BIGINT NOT NULL,
+    booking_id BIGINT NULL,
+    user_name VARCHAR(255) NULL,
+    created_at TIMESTAMP(3) NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Responses of requests sent with an Idempotency-Key, replayed when the request is retried
+CREATE TABLE IF NOT EXISTS idempotency_key (
+    idempotency_key VARCHAR(100) PRIMARY KEY,
+    fingerprint CHAR(64) NOT NULL,
+    response_body TEXT NULL,
+    created_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    INDEX idx_idempotency_expires (expires_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Stamped by the primary when read replicas are configured; replicas compare it with the clock to measure lag
+CREATE TABLE IF NOT EXISTS replication_heartbeat (
+    id INT PRIMARY KEY,
+    beat_at TIMESTAMP(3) NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Past slots and their bookings, moved out of the hot tables by the archiver with their ids unchanged
+CREATE TABLE IF NOT EXISTS slot_archive (
+    id BIGINT PRIMARY KEY,
+    venue_id BIGINT NOT NULL,
+    start_time TIMESTAMP NOT NULL,
+    end_time TIMESTAMP NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    archived_at TIMESTAMP NOT NULL,
+    INDEX idx_slot_archive_venue_time (venue_id, start_time)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE TABLE IF NOT EXISTS booking_archive (
+    id BIGINT PRIMARY KEY,
+    slot_id BIGINT NOT NULL,
+    user_name VARCHAR(100) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    cancelled_at TIMESTAMP NULL,
+    archived_at TIMESTAMP NOT NULL,
+    INDEX idx_booking_archive_slot (slot_id),
+    INDEX idx_booking_archive_user (user_name)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,158 @@
+package com.example.sports_booking.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caps the number of requests in flight when requests run on virtual threads.
+ * <p>
+ * With a Tomcat platform-thread pool the pool size bounds concurrency; with virtual threads nothing does, and
+ * every request would queue on the JDBC pool until it times out. Requests beyond the cap wait up to
+ * {@code request.concurrency.acquire-timeout} for a permit and are then rejected with 503 and {@code Retry-After}.
+ * Actuator endpoints are never limited.
+ */
+@Slf4j
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    /** In-flight requests per pooled JDBC connection when no explicit limit is configured. */
+    static final int REQUESTS_PER_CONNECTION = 4;
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    private final Semaphore permits;
+    private final int maxInFlight;
+    private final Duration acquireTimeout;
+    private final ObjectMapper objectMapper;
+
+    public ConcurrencyLimitFilter(@Value("${request.concurrency.max-in-flight:0}") int maxInFlight,
+                                  @Value("${request.concurrency.acquire-timeout:2s}") Duration acquireTimeout,
+                                  DataSource dataSource,
+                                  ObjectMapper objectMapper) {
+        this.maxInFlight = maxInFlight > 0 ? maxInFlight : REQUESTS_PER_CONNECTION * poolSize(dataSource);
+        this.permits = new Semaphore(this.maxInFlight);
+        this.acquireTimeout = acquireTimeout;
+        this.objectMapper = objectMapper;
+        log.info("Virtual threads enabled; limiting requests in flight to {}", this.maxInFlight);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // The slot event feed holds no connection while idle and is capped separately by slot-events.max-subscribers
+        String uri = request.getRequestURI();
+        return uri.startsWith(request.getContextPath() + "/actuator")
+                || uri.equals(request.getContextPath() + "/slots/events");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            log.warn("Rejecting {} {}: {} requests already in flight", request.getMethod(), request.getRequestURI(), maxInFlight);
+            reject(response);
+            return;
+        }
+
+        AtomicBoolean released = new AtomicBoolean();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // Streaming responses keep their permit (and usually a connection) until they finish
+                request.getAsyncContext().addListener(new ReleasingListener(released));
+            } else {
+                release(released);
+            }
+        }
+    }
+
+    private void release(AtomicBoolean released) {
+        if (released.compareAndSet(false, true)) {
+            permits.release();
+        }
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", status.value());
+        body.put("error", status.getReasonPhrase());
+        body.put("message", "Server is busy, retry shortly");
+
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        try {
+            return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+        } catch (SQLException e) {
+            return DEFAULT_POOL_SIZE;
+        }
+    }
+
+    private final class ReleasingListener implements AsyncListener {
+
+        private final AtomicBoolean released;
+
+        private ReleasingListener(AtomicBoolean released) {
+            this.released = released;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release(released);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release(released);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release(released);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.sports_booking.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sends read-only transactions to read replicas when {@code datasource.replicas.urls} is set.
+ * <p>
+ * The primary pool is built from {@code spring.datasource.*} as Spring Boot would build it. The application's
+ * {@link DataSource} wraps it in a {@link LazyConnectionDataSourceProxy}, which only fetches a physical
+ * connection on the first statement, once the transaction has marked it read-only, and then takes it from
+ * {@link ReplicaDataSource}. Read-write transactions and JDBC reads outside a transaction use the primary, so a
+ * read that must see its own writes is pinned there by running it in a read-write transaction. Spring Data
+ * repository reads outside a transaction open their own read-only one and go to a replica. Replicas are not used
+ * when {@link ShardingConfig} partitions the data.
+ */
+@Slf4j
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "datasource.replicas", name = "urls")
+@ConditionalOnProperty(name = "sharding.enabled", havingValue = "false", matchIfMissing = true)
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaDataSource replicaDataSource(HikariDataSource primaryDataSource,
+                                               MeterRegistry registry,
+                                               @Value("${datasource.replicas.urls}") List<String> urls,
+                                               @Value("${datasource.replicas.username:${spring.datasource.username:}}") String username,
+                                               @Value("${datasource.replicas.password:${spring.datasource.password:}}") String password,
+                                               @Value("${datasource.replicas.pool-size:0}") int poolSize,
+                                               @Value("${datasource.replicas.connection-timeout:2s}") Duration connectionTimeout,
+                                               @Value("${datasource.replicas.max-lag:5s}") Duration maxLag) {
+        List<HikariDataSource> pools = new ArrayList<>();
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("replica-" + pools.size());
+            pool.setJdbcUrl(url.trim());
+            pool.setUsername(username);
+            pool.setPassword(password);
+            pool.setDriverClassName(primaryDataSource.getDriverClassName());
+            pool.setMaximumPoolSize(poolSize > 0 ? poolSize : primaryDataSource.getMaximumPoolSize());
+            pool.setReadOnly(true);
+            // A replica that cannot hand out a connection quickly is skipped in favour of the primary
+            pool.setConnectionTimeout(connectionTimeout.toMillis());
+            // Start even while a replica is down; it takes reads once its health check passes
+            pool.setInitializationFailTimeout(-1);
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+            pools.add(pool);
+        }
+        log.info("Routing read-only transactions to {} read replica(s), max lag {}", pools.size(), maxLag);
+        return new ReplicaDataSource(primaryDataSource, pools, maxLag, registry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.sports_booking.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Hands out read replica connections for read-only transactions, falling back to the primary.
+ * <p>
+ * A replica takes reads while its health check passes: it answers, and lags the primary by at most
+ * {@code datasource.replicas.max-lag}. Lag is measured by stamping {@code replication_heartbeat} on the primary
+ * at a fixed rate and reading the stamp back from each replica, so it needs no vendor-specific status query.
+ * The stamp and the time it is compared with both come from the primary's clock, so instances whose clocks
+ * disagree can share the heartbeat row. Healthy replicas are used round robin; one that cannot be reached
+ * (SQLState class 08) is skipped until its next passing check. Other errors leave a replica's state as it was.
+ * With no healthy replica, reads go to the primary.
+ */
+@Slf4j
+public class ReplicaDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final String BEAT_SQL = "UPDATE replication_heartbeat SET beat_at = NOW(3) WHERE id = 1";
+    private static final String FIRST_BEAT_SQL = "INSERT INTO replication_heartbeat (id, beat_at) VALUES (1, NOW(3))";
+    private static final String LAST_BEAT_SQL = "SELECT beat_at FROM replication_heartbeat WHERE id = 1";
+    private static final String PRIMARY_TIME_SQL = "SELECT NOW(3)";
+    private static final String CONNECTION_FAILURE_CLASS = "08";
+    private static final int CHECK_TIMEOUT_SECONDS = 2;
+
+    private final DataSource primary;
+    private final JdbcTemplate primaryJdbc;
+    private final List<Replica> replicas;
+    private final Duration maxLag;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter primaryFallbacks;
+
+    public ReplicaDataSource(DataSource primary, List<HikariDataSource> pools, Duration maxLag, MeterRegistry registry) {
+        this.primary = primary;
+        this.primaryJdbc = new JdbcTemplate(primary);
+        this.replicas = pools.stream().map(Replica::new).collect(Collectors.toList());
+        this.maxLag = maxLag;
+        this.primaryFallbacks = Counter.builder("datasource.replica.fallbacks")
+                .description("Read-only transactions sent to the primary because no replica was healthy")
+                .register(registry);
+        Gauge.builder("datasource.replicas.healthy", this, ReplicaDataSource::healthyReplicas)
+                .description("Read replicas currently taking reads")
+                .register(registry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        int size = replicas.size();
+        int start = size > 0 ? Math.floorMod(next.getAndIncrement(), size) : 0;
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                return replica.pool.getConnection();
+            } catch (SQLException e) {
+                if (isConnectionFailure(e)) {
+                    replica.update(false, "connection failed: " + e.getMessage());
+                } else {
+                    log.debug("No connection from read replica {}: {}", replica.pool.getPoolName(), e.getMessage());
+                }
+            }
+        }
+        primaryFallbacks.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica credentials are configured per pool");
+    }
+
+    /**
+     * Stamps the heartbeat row on the primary with the primary's time. Every instance stamps it; the newest stamp wins.
+     */
+    @Scheduled(fixedDelayString = "${datasource.replicas.heartbeat-interval:PT1S}")
+    public void beat() {
+        if (maxLag.isZero()) {
+            return;
+        }
+        try {
+            if (primaryJdbc.update(BEAT_SQL) == 0) {
+                primaryJdbc.update(FIRST_BEAT_SQL);
+            }
+        } catch (DuplicateKeyException e) {
+            // Another instance inserted the row first; the next beat updates it
+        } catch (DataAccessException e) {
+            log.warn("Failed to write replication heartbeat: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Checks every replica and updates which of them take reads.
+     */
+    @Scheduled(fixedDelayString = "${datasource.replicas.check-interval:PT2S}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.pool.getConnection()) {
+                if (maxLag.isZero()) {
+                    replica.update(connection.isValid(CHECK_TIMEOUT_SECONDS), "not valid");
+                    continue;
+                }
+                LocalDateTime lastBeat = lastBeat(connection);
+                if (lastBeat == null) {
+                    replica.update(false, "no replication heartbeat yet");
+                    continue;
+                }
+                Duration lag = Duration.between(lastBeat, primaryTime());
+                replica.update(lag.compareTo(maxLag) <= 0, "lagging " + lag.toMillis() + " ms");
+            } catch (SQLException e) {
+                if (isConnectionFailure(e)) {
+                    replica.update(false, "check failed: " + e.getMessage());
+                } else {
+                    log.warn("Failed to check read replica {}: {}", replica.pool.getPoolName(), e.getMessage());
+                }
+            } catch (DataAccessException e) {
+                log.warn("Failed to read the primary's time, replicas not checked: {}", e.getMessage());
+                return;
+            }
+        }
+    }
+
+    public int healthyReplicas() {
+        return (int) replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.pool.close());
+    }
+
+    private LocalDateTime primaryTime() {
+        return primaryJdbc.queryForObject(PRIMARY_TIME_SQL, Timestamp.class).toLocalDateTime();
+    }
+
+    /**
+     * Whether the error means the replica could not be reached, as opposed to a failing statement or a busy pool.
+     */
+    private static boolean isConnectionFailure(SQLException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException) {
+                String state = ((SQLException) cause).getSQLState();
+                if (state != null && state.startsWith(CONNECTION_FAILURE_CLASS)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static LocalDateTime lastBeat(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(LAST_BEAT_SQL)) {
+            statement.setQueryTimeout(CHECK_TIMEOUT_SECONDS);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? rs.getTimestamp(1).toLocalDateTime() : null;
+            }
+        }
+    }
+
+    private static final class Replica {
+        private final HikariDataSource pool;
+        // Replicas start out of rotation until their first check passes
+        private volatile boolean healthy;
+
+        private Replica(HikariDataSource pool) {
+            this.pool = pool;
+        }
+
+        private void update(boolean nowHealthy, String reason) {
+            if (nowHealthy && !healthy) {
+                log.info("Read replica {} is healthy, sending reads to it", pool.getPoolName());
+            } else if (!nowHealthy && healthy) {
+                log.warn("Read replica {} taken out of rotation: {}", pool.getPoolName(), reason);
+            }
+            healthy = nowHealthy;
+        }
+    }
+}
@@ -0,0 +1,389 @@
+package com.example.sports_booking.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Decides which shard venue, slot and booking rows are read from and written to when {@code sharding.enabled}
+ * is set; with sharding off there is a single shard and every method runs its work directly.
+ * <p>
+ * A venue lives on one shard, and its slots and their bookings live with it. Each shard's auto-increment ids are
+ * interleaved ({@code id = shard + 1 + n * shards}), so the shard holding any venue, slot or booking follows from
+ * its id alone. A transaction picks its shard with {@link #select} before its first statement; the connection is
+ * only fetched then, see {@link ShardingConfig}. Work outside a transaction runs on a shard with
+ * {@link #onShard}, and reads spanning every shard use {@link #gather} or {@link #streamMerged}, which query
+ * the shards in parallel. Tables that are not partitioned, like {@code sport}, live on shard 0.
+ */
+@Component
+public class ShardRouter {
+
+    public static final int HOME_SHARD = 0;
+    private static final int MERGE_BUFFER_ROWS = 256;
+    private static final Object END = new Object();
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private final int shardCount;
+    private final AtomicInteger nextVenueShard = new AtomicInteger();
+
+    public ShardRouter(@Value("${sharding.enabled:false}") boolean enabled,
+                       @Value("${sharding.urls:}") List<String> urls) {
+        this.shardCount = enabled ? (int) urls.stream().filter(url -> !url.isBlank()).count() : 1;
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("sharding.urls must list at least one database when sharding is enabled");
+        }
+    }
+
+    /** Rows read from every shard by a {@link #streamMerged} source. */
+    @FunctionalInterface
+    public interface ShardStream<T> {
+        void stream(int shard, Consumer<T> rows);
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    /** Shard holding the venue, slot or booking with this id. */
+    public int shardOf(long id) {
+        return (int) Math.floorMod(id - 1, (long) shardCount);
+    }
+
+    /** Shard for a new venue; venues are spread over the shards round robin. */
+    public int nextVenueShard() {
+        return Math.floorMod(nextVenueShard.getAndIncrement(), shardCount);
+    }
+
+    /**
+     * Runs the current transaction on the given shard. Must be called before the transaction's first statement;
+     * the choice holds until the transaction completes.
+     */
+    public void select(int shard) {
+        if (shardCount == 1) {
+            return;
+        }
+        Integer current = CURRENT.get();
+        if (current != null) {
+            if (current != shard) {
+                throw new IllegalStateException("Transaction already runs on shard " + current + ", cannot use shard " + shard);
+            }
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("A shard can only be selected inside a transaction");
+        }
+        bind(shard);
+    }
+
+    /** Runs the current transaction on the shard holding the venue, slot or booking with this id. */
+    public void selectShardOf(long id) {
+        select(shardOf(id));
+    }
+
+    /**
+     * Runs the current transaction on the shard holding all of the given slots. Slots of venues on different
+     * shards cannot be written in one transaction.
+     */
+    public void selectShardOf(Collection<Long> ids) {
+        Map<Integer, List<Long>> byShard = byShard(ids);
+        if (byShard.size() > 1) {
+            throw new IllegalArgumentException("Slots " + ids + " belong to venues stored on different shards and "
+                    + "cannot be booked together");
+        }
+        byShard.keySet().forEach(this::select);
+    }
+
+    /**
+     * Fails if a row the current transaction just inserted was given an id of another shard, which means the
+     * shard's auto-increment is not interleaved as {@link ShardingConfig} expects.
+     */
+    public void checkGenerated(long id) {
+        Integer current = CURRENT.get();
+        if (shardCount > 1 && current != null && shardOf(id) != current) {
+            throw new IllegalStateException("Shard " + current + " generated id " + id + ", which belongs to shard "
+                    + shardOf(id) + "; check its auto-increment offset and increment");
+        }
+    }
+
+    /** Runs {@code call}, and the transactions it starts, on the given shard. Cannot switch an open transaction's shard. */
+    public <T> T onShard(int shard, Supplier<T> call) {
+        if (shardCount == 1) {
+            return call.get();
+        }
+        Integer previous = CURRENT.get();
+        if (previous != null && previous == shard) {
+            return call.get();
+        }
+        if (previous != null || TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Cannot switch to shard " + shard + " inside a transaction");
+        }
+        CURRENT.set(shard);
+        try {
+            return call.get();
+        } finally {
+            CURRENT.remove();
+        }
+    }
+
+    /** Runs {@code call} once per shard in parallel and returns the results in shard order. */
+    public <T> List<T> gather(IntFunction<T> call) {
+        if (shardCount == 1) {
+            return Collections.singletonList(call.apply(HOME_SHARD));
+        }
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<T>> results = new ArrayList<>(shardCount);
+            for (int shard = 0; shard < shardCount; shard++) {
+                int target = shard;
+                results.add(executor.submit(() -> onShard(target, () -> call.apply(target))));
+            }
+            List<T> gathered = new ArrayList<>(shardCount);
+            for (Future<T> result : results) {
+                gathered.add(await(result));
+            }
+            return gathered;
+        }
+    }
+
+    /**
+     * Splits venue, slot or booking ids by shard, runs {@code call} for each shard holding some of them in
+     * parallel and concatenates the results.
+     */
+    public <T> List<T> gather(Collection<Long> ids, BiFunction<Integer, List<Long>, List<T>> call) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        if (shardCount == 1) {
+            return call.apply(HOME_SHARD, List.copyOf(ids));
+        }
+        Map<Integer, List<Long>> byShard = byShard(ids);
+        return gather(shard -> byShard.containsKey(shard) ? call.apply(shard, byShard.get(shard)) : List.<T>of())
+                .stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Runs {@code call} once per shard in parallel; each result must follow {@code order}. Returns the first
+     * {@code limit} rows of all results merged in that order.
+     */
+    public <T> List<T> gatherMerged(Comparator<? super T> order, int limit, IntFunction<List<T>> call) {
+        if (shardCount == 1) {
+            return call.apply(HOME_SHARD);
+        }
+        return merge(gather(call), order, limit);
+    }
+
+    /**
+     * Like {@link #gatherMerged(Comparator, int, IntFunction)}, but only queries the shards holding some of the
+     * given venue, slot or booking ids, passing each shard its share of them.
+     */
+    public <T> List<T> gatherMerged(Collection<Long> ids, Comparator<? super T> order, int limit,
+                                    BiFunction<Integer, List<Long>, List<T>> call) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        if (shardCount == 1) {
+            return call.apply(HOME_SHARD, List.copyOf(ids));
+        }
+        Map<Integer, List<Long>> byShard = byShard(ids);
+        return merge(gather(shard -> byShard.containsKey(shard) ? call.apply(shard, byShard.get(shard)) : List.<T>of()),
+                order, limit);
+    }
+
+    /** Runs {@code call} on each shard in turn on this thread, which must not be in a transaction. */
+    public void forEachShard(IntConsumer call) {
+        for (int shard = 0; shard < shardCount; shard++) {
+            int target = shard;
+            onShard(target, () -> {
+                call.accept(target);
+                return null;
+            });
+        }
+    }
+
+    /** Groups venue, slot or booking ids by the shard holding them. */
+    public Map<Integer, List<Long>> byShard(Collection<Long> ids) {
+        return ids.stream().collect(Collectors.groupingBy(this::shardOf, TreeMap::new, Collectors.toList()));
+    }
+
+    /**
+     * Streams rows from every shard into {@code sink} in {@code order}, which each shard's rows must already
+     * follow. Shards are read in parallel, each at most {@value #MERGE_BUFFER_ROWS} rows ahead of the sink,
+     * and {@code sink} is only called on this thread. When {@code sink} throws, the shard reads are stopped.
+     */
+    public <T> void streamMerged(Comparator<? super T> order, ShardStream<T> source, Consumer<? super T> sink) {
+        if (shardCount == 1) {
+            source.stream(HOME_SHARD, sink::accept);
+            return;
+        }
+        List<BlockingQueue<Object>> queues = new ArrayList<>(shardCount);
+        AtomicBoolean stopped = new AtomicBoolean();
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            for (int shard = 0; shard < shardCount; shard++) {
+                BlockingQueue<Object> queue = new ArrayBlockingQueue<>(MERGE_BUFFER_ROWS);
+                queues.add(queue);
+                int target = shard;
+                executor.execute(() -> {
+                    Object last = END;
+                    try {
+                        onShard(target, () -> {
+                            source.stream(target, row -> hand(queue, row, stopped));
+                            return null;
+                        });
+                    } catch (Throwable e) {
+                        last = new Failure(e);
+                    }
+                    try {
+                        hand(queue, last, stopped);
+                    } catch (CancellationException e) {
+                        // The merge has already stopped
+                    }
+                });
+            }
+
+            PriorityQueue<Head<T>> heads = new PriorityQueue<>((a, b) -> order.compare(a.row, b.row));
+            for (int shard = 0; shard < shardCount; shard++) {
+                advance(heads, queues.get(shard), shard);
+            }
+            while (!heads.isEmpty()) {
+                Head<T> head = heads.poll();
+                sink.accept(head.row);
+                advance(heads, queues.get(head.shard), head.shard);
+            }
+        } finally {
+            stopped.set(true);
+            // Waits for the shard reads to stop so no query outlives the request
+            executor.close();
+        }
+    }
+
+    /**
+     * Shard the current data source lookup goes to. A transaction that reaches its first statement without
+     * selecting a shard stays on {@link #HOME_SHARD}, so a later {@link #select} of another shard fails instead
+     * of silently reading the wrong one.
+     */
+    static int currentShard() {
+        Integer current = CURRENT.get();
+        if (current != null) {
+            return current;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            bind(HOME_SHARD);
+        }
+        return HOME_SHARD;
+    }
+
+    private static void bind(int shard) {
+        CURRENT.set(shard);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                CURRENT.remove();
+            }
+        });
+    }
+
+    private static <T> List<T> merge(List<List<T>> results, Comparator<? super T> order, int limit) {
+        return results.stream()
+                .flatMap(List::stream)
+                .sorted(order)
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void advance(PriorityQueue<Head<T>> heads, BlockingQueue<Object> queue, int shard) {
+        Object next;
+        try {
+            next = queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while merging shard results", e);
+        }
+        if (next instanceof Failure) {
+            throw rethrow(((Failure) next).error);
+        }
+        if (next != END) {
+            heads.add(new Head<>((T) next, shard));
+        }
+    }
+
+    private static void hand(BlockingQueue<Object> queue, Object row, AtomicBoolean stopped) {
+        try {
+            while (!queue.offer(row, 100, TimeUnit.MILLISECONDS)) {
+                if (stopped.get()) {
+                    throw new CancellationException("Shard merge stopped");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Shard merge interrupted");
+        }
+    }
+
+    private static <T> T await(Future<T> result) {
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while querying shards", e);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable error) {
+        if (error instanceof RuntimeException) {
+            return (RuntimeException) error;
+        }
+        if (error instanceof Error) {
+            throw (Error) error;
+        }
+        return new IllegalStateException("Shard query failed", error);
+    }
+
+    private static final class Head<T> {
+        private final T row;
+        private final int shard;
+
+        private Head(T row, int shard) {
+            this.row = row;
+            this.shard = shard;
+        }
+    }
+
+    private static final class Failure {
+        private final Throwable error;
+
+        private Failure(Throwable error) {
+            this.error = error;
+        }
+    }
+}
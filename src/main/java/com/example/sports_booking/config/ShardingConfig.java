@@ -0,0 +1,102 @@
+package com.example.sports_booking.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Partitions venues, slots and bookings over the databases in {@code sharding.urls} when {@code sharding.enabled}
+ * is set. {@link ShardRouter} decides which shard a statement goes to.
+ * <p>
+ * The application's {@link DataSource} is a {@link LazyConnectionDataSourceProxy} over a routing data source, so a
+ * transaction only takes a connection, from the shard its service selected, at its first statement. Every shard
+ * must hand out interleaved ids: shard {@code k} of {@code n} generates {@code k + 1}, {@code k + 1 + n}, ...
+ * For MySQL this is set on each connection; other databases must configure their identity columns that way.
+ * Hibernate validates or updates the schema of shard 0 only, so the other shards are created from {@code init.sql}.
+ */
+@Slf4j
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(DataSourceProperties properties,
+                                                         MeterRegistry registry,
+                                                         @Value("${sharding.urls}") List<String> urls,
+                                                         @Value("${sharding.username:${spring.datasource.username:}}") String username,
+                                                         @Value("${sharding.password:${spring.datasource.password:}}") String password,
+                                                         @Value("${sharding.pool-size:${spring.datasource.hikari.maximum-pool-size:10}}") int poolSize) {
+        List<String> shardUrls = urls.stream().filter(url -> !url.isBlank()).map(String::trim).collect(Collectors.toList());
+        if (shardUrls.isEmpty()) {
+            throw new IllegalArgumentException("sharding.urls must list at least one database when sharding is enabled");
+        }
+        List<HikariDataSource> pools = new ArrayList<>(shardUrls.size());
+        for (int shard = 0; shard < shardUrls.size(); shard++) {
+            String url = shardUrls.get(shard);
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("shard-" + shard);
+            pool.setJdbcUrl(url);
+            pool.setUsername(username);
+            pool.setPassword(password);
+            pool.setDriverClassName(properties.determineDriverClassName());
+            pool.setMaximumPoolSize(poolSize);
+            if (url.startsWith("jdbc:mysql:")) {
+                pool.setConnectionInitSql("SET SESSION auto_increment_increment = " + shardUrls.size()
+                        + ", auto_increment_offset = " + (shard + 1));
+            }
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+            pools.add(pool);
+        }
+        log.info("Partitioning venues, slots and bookings over {} shards", pools.size());
+        return new ShardRoutingDataSource(pools);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    /** Hands out connections of the shard {@link ShardRouter} chose for the current thread. */
+    public static class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+        private final List<HikariDataSource> pools;
+
+        ShardRoutingDataSource(List<HikariDataSource> pools) {
+            this.pools = pools;
+            Map<Object, Object> targets = new HashMap<>();
+            for (int shard = 0; shard < pools.size(); shard++) {
+                targets.put(shard, pools.get(shard));
+            }
+            setTargetDataSources(targets);
+            setDefaultTargetDataSource(pools.get(ShardRouter.HOME_SHARD));
+            setLenientFallback(false);
+        }
+
+        @Override
+        protected Object determineCurrentLookupKey() {
+            return ShardRouter.currentShard();
+        }
+
+        @Override
+        public void close() {
+            pools.forEach(HikariDataSource::close);
+        }
+    }
+}
@@ -1,15 +1,28 @@
 package com.example.sports_booking.controller;
 
 import com.example.sports_booking.dto.BookingDTO;
+import com.example.sports_booking.dto.BookingFilter;
+import com.example.sports_booking.dto.CreateBatchBookingRequest;
 import com.example.sports_booking.dto.CreateBookingRequest;
+import com.example.sports_booking.entity.BookingStatus;
+import com.example.sports_booking.service.BookingAdmission;
+import com.example.sports_booking.service.BookingExportService;
 import com.example.sports_booking.service.BookingService;
+import com.example.sports_booking.service.ExportFormat;
+import com.example.sports_booking.service.IdempotencyService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 
 @RestController
 @RequiredArgsConstructor
@@ -17,15 +30,58 @@ import java.util.List;
 public class BookingController {
 
     private final BookingService service;
+    private final BookingExportService exportService;
+    private final IdempotencyService idempotency;
+    private final BookingAdmission admission;
 
     @PostMapping
-    public ResponseEntity<BookingDTO> book(@Valid @RequestBody CreateBookingRequest request) {
-        return ResponseEntity.status(HttpStatus.CREATED).body(service.book(request));
+    public ResponseEntity<BookingDTO> book(
+            @Valid @RequestBody CreateBookingRequest request,
+            @RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        List<Long> slotIds = List.of(request.getSlotId());
+        if (idempotencyKey == null) {
+            try (BookingAdmission.Permit permit = admission.admit(request.getUserName(), slotIds)) {
+                return ResponseEntity.status(HttpStatus.CREATED).body(service.book(request));
+            }
+        }
+        // Replays from memory and in-flight duplicates are answered without taking a permit
+        BookingDTO booking = idempotency.execute(idempotencyKey, "book " + request.getSlotId() + " " + request.getUserName(),
+                BookingDTO.class, () -> admission.admit(request.getUserName(), slotIds), () -> service.book(request));
+        return ResponseEntity.status(HttpStatus.CREATED).body(booking);
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<BookingDTO>> bookAll(@Valid @RequestBody CreateBatchBookingRequest request) {
+        Set<Long> slotIds = new TreeSet<>(request.getSlotIds());
+        try (BookingAdmission.Permit permit = admission.admit(request.getUserName(), slotIds)) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(service.bookAll(request));
+        }
     }
 
     @GetMapping
-    public ResponseEntity<List<BookingDTO>> listBookings() {
-        return ResponseEntity.ok(service.listBookings());
+    public ResponseEntity<List<BookingDTO>> listBookings(
+            @RequestParam(required = false) BookingStatus status,
+            @RequestParam(required = false) Long venueId,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + BookingService.DEFAULT_LIMIT) int limit) {
+        BookingFilter filter = new BookingFilter(status, venueId, from, to);
+        return Responses.page(service.listBookings(filter, cursor, limit));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(required = false) BookingStatus status,
+            @RequestParam(required = false) Long venueId,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime to,
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        BookingFilter filter = new BookingFilter(status, venueId, from, to);
+        StreamingResponseBody body = out -> exportService.export(filter, format, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .body(body);
     }
 
     @GetMapping("/{id}")
@@ -34,8 +90,17 @@ public class BookingController {
     }
 
     @PutMapping("/{id}/cancel")
-    public ResponseEntity<Void> cancel(@PathVariable Long id) {
-        service.cancel(id);
+    public ResponseEntity<Void> cancel(
+            @PathVariable Long id,
+            @RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            service.cancel(id);
+        } else {
+            idempotency.execute(idempotencyKey, "cancel " + id, Void.class, () -> {
+                service.cancel(id);
+                return null;
+            });
+        }
         return ResponseEntity.noContent().build();
     }
 }
@@ -0,0 +1,23 @@
+package com.example.sports_booking.controller;
+
+import com.example.sports_booking.dto.KeysetPage;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+final class Responses {
+
+    private Responses() {
+    }
+
+    /**
+     * Renders a keyset page as a plain list body, with the next page's cursor in a response header.
+     */
+    static <T> ResponseEntity<List<T>> page(KeysetPage<T> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(KeysetPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+}
@@ -1,18 +1,29 @@
 package com.example.sports_booking.controller;
 
 import com.example.sports_booking.dto.CreateSlotRequest;
+import com.example.sports_booking.dto.CreateSlotScheduleRequest;
+import com.example.sports_booking.dto.SlotScheduleSummaryDTO;
+import com.example.sports_booking.entity.SlotStatus;
 import com.example.sports_booking.dto.SlotDTO;
 import com.example.sports_booking.dto.AvailableVenueDTO;
+import com.example.sports_booking.dto.FreeWindowDTO;
+import com.example.sports_booking.dto.GeoRadius;
+import com.example.sports_booking.dto.KeysetPage;
 import com.example.sports_booking.service.SlotService;
 import com.example.sports_booking.service.AvailabilityService;
+import com.example.sports_booking.service.DayMatch;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.List;
 
 @RestController
@@ -30,11 +41,77 @@ public class SlotController {
                 .body(slotService.addSlot(venueId, request));
     }
 
+    @GetMapping("/venues/{venueId}/slots")
+    public ResponseEntity<List<SlotDTO>> getByVenueId(
+            @PathVariable Long venueId,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime to,
+            @RequestParam(required = false) SlotStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + SlotService.DEFAULT_LIMIT) int limit) {
+        return Responses.page(slotService.getByVenueId(venueId, from, to, status, cursor, limit));
+    }
+
+    @PostMapping("/venues/{venueId}/slots/schedule")
+    public ResponseEntity<SlotScheduleSummaryDTO> addSchedule(
+            @PathVariable Long venueId,
+            @Valid @RequestBody CreateSlotScheduleRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(slotService.addSchedule(venueId, request));
+    }
+
     @GetMapping("/venues/available")
     public ResponseEntity<List<AvailableVenueDTO>> getAvailableVenues(
             @RequestParam(required = false) String sportId,
             @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime startTime,
-            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime endTime) {
-        return ResponseEntity.ok(availabilityService.findAvailableVenues(sportId, startTime, endTime));
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime endTime,
+            @RequestParam(required = false) Double latitude,
+            @RequestParam(required = false) Double longitude,
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + AvailabilityService.DEFAULT_LIMIT) int limit) {
+        KeysetPage<AvailableVenueDTO> page =
+                availabilityService.findAvailableVenues(sportId, startTime, endTime,
+                        near(latitude, longitude, radiusKm), cursor, limit);
+        return Responses.page(page);
+    }
+
+    @GetMapping(value = "/venues/available", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAvailableVenues(
+            @RequestParam(required = false) String sportId,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime startTime,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime endTime,
+            @RequestParam(required = false) Double latitude,
+            @RequestParam(required = false) Double longitude,
+            @RequestParam(required = false) Double radiusKm) {
+        GeoRadius near = near(latitude, longitude, radiusKm);
+        StreamingResponseBody body = out -> availabilityService.streamAvailableVenues(sportId, startTime, endTime, near, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @GetMapping("/venues/available/windows")
+    public ResponseEntity<List<FreeWindowDTO>> getFreeWindows(
+            @RequestParam(required = false) String sportId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam @DateTimeFormat(pattern = "HH:mm") LocalTime fromTime,
+            @RequestParam @DateTimeFormat(pattern = "HH:mm") LocalTime toTime,
+            @RequestParam(defaultValue = "ANY") DayMatch match,
+            @RequestParam(required = false) Double latitude,
+            @RequestParam(required = false) Double longitude,
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + AvailabilityService.DEFAULT_LIMIT) int limit) {
+        return Responses.page(availabilityService.findFreeWindows(
+                sportId, fromDate, toDate, fromTime, toTime, match, near(latitude, longitude, radiusKm), cursor, limit));
+    }
+
+    /** Restricts a search to a circle when any of its parameters is given; incomplete circles are rejected later. */
+    private static GeoRadius near(Double latitude, Double longitude, Double radiusKm) {
+        return latitude != null || longitude != null || radiusKm != null
+                ? new GeoRadius(latitude, longitude, radiusKm)
+                : null;
     }
 }
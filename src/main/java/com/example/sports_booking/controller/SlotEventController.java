@@ -0,0 +1,25 @@
+package com.example.sports_booking.controller;
+
+import com.example.sports_booking.service.SlotEventHub;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequiredArgsConstructor
+public class SlotEventController {
+
+    private final SlotEventHub slotEventHub;
+
+    @GetMapping(value = "/slots/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(
+            @RequestParam(required = false) Long venueId,
+            @RequestParam(required = false) String sportId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return slotEventHub.subscribe(venueId, sportId, lastEventId);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.sports_booking.controller;
+
+import com.example.sports_booking.dto.BookingDTO;
+import com.example.sports_booking.dto.CreateHoldRequest;
+import com.example.sports_booking.dto.HoldTokenRequest;
+import com.example.sports_booking.dto.SlotHoldDTO;
+import com.example.sports_booking.service.BookingAdmission;
+import com.example.sports_booking.service.BookingService;
+import com.example.sports_booking.service.SlotHoldService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/slots/{slotId}/hold")
+public class SlotHoldController {
+
+    private final SlotHoldService holdService;
+    private final BookingService bookingService;
+    private final BookingAdmission admission;
+
+    @PostMapping
+    public ResponseEntity<SlotHoldDTO> hold(@PathVariable Long slotId, @Valid @RequestBody CreateHoldRequest request) {
+        try (BookingAdmission.Permit permit = admission.admit(request.getUserName(), List.of(slotId))) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(holdService.hold(slotId, request));
+        }
+    }
+
+    @PostMapping("/confirm")
+    public ResponseEntity<BookingDTO> confirm(@PathVariable Long slotId, @Valid @RequestBody HoldTokenRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(bookingService.confirmHold(slotId, request));
+    }
+
+    @PostMapping("/release")
+    public ResponseEntity<Void> release(@PathVariable Long slotId, @Valid @RequestBody HoldTokenRequest request) {
+        holdService.release(slotId, request);
+        return ResponseEntity.noContent().build();
+    }
+}
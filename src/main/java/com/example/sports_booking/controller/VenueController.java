@@ -1,6 +1,9 @@
 package com.example.sports_booking.controller;
 
+import com.example.sports_booking.dto.CacheStatsDTO;
 import com.example.sports_booking.dto.CreateVenueRequest;
+import com.example.sports_booking.dto.GeoRadius;
+import com.example.sports_booking.dto.NearbyVenueDTO;
 import com.example.sports_booking.dto.VenueDTO;
 import com.example.sports_booking.service.VenueService;
 import jakarta.validation.Valid;
@@ -28,11 +31,26 @@ public class VenueController {
         return ResponseEntity.ok(service.list());
     }
 
+    @GetMapping("/nearby")
+    public ResponseEntity<List<NearbyVenueDTO>> nearby(
+            @RequestParam double latitude,
+            @RequestParam double longitude,
+            @RequestParam double radiusKm,
+            @RequestParam(required = false) String sportId,
+            @RequestParam(defaultValue = "" + VenueService.DEFAULT_NEARBY_LIMIT) int limit) {
+        return ResponseEntity.ok(service.findNearby(new GeoRadius(latitude, longitude, radiusKm), sportId, limit));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<VenueDTO> getById(@PathVariable Long id) {
         return ResponseEntity.ok(service.getById(id));
     }
 
+    @GetMapping("/cache/stats")
+    public ResponseEntity<CacheStatsDTO> cacheStats() {
+        return ResponseEntity.ok(service.cacheStats());
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long id) {
         service.delete(id);
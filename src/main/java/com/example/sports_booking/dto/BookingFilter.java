@@ -0,0 +1,27 @@
+package com.example.sports_booking.dto;
+
+import com.example.sports_booking.entity.BookingStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional criteria for listing and exporting bookings; {@code null} fields are not applied.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookingFilter {
+    private BookingStatus status;
+    private Long venueId;
+
+    /** Inclusive lower bound on the booking creation time. */
+    private LocalDateTime createdFrom;
+
+    /** Exclusive upper bound on the booking creation time. */
+    private LocalDateTime createdTo;
+}
@@ -0,0 +1,17 @@
+package com.example.sports_booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CacheStatsDTO {
+    private long hits;
+    private long misses;
+    private long evictions;
+    private int size;
+}
@@ -0,0 +1,27 @@
+package com.example.sports_booking.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CreateBatchBookingRequest {
+    public static final int MAX_SLOTS = 20;
+
+    @NotEmpty(message = "slotIds is required")
+    @Size(max = MAX_SLOTS, message = "at most " + MAX_SLOTS + " slots can be booked at once")
+    private List<@NotNull(message = "slotIds must not contain null") Long> slotIds;
+
+    @NotBlank(message = "userName is required")
+    private String userName;
+}
@@ -0,0 +1,16 @@
+package com.example.sports_booking.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CreateHoldRequest {
+    @NotBlank(message = "userName is required")
+    private String userName;
+}
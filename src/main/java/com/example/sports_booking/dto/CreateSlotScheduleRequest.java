@@ -0,0 +1,47 @@
+package com.example.sports_booking.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CreateSlotScheduleRequest {
+    @NotNull(message = "startDate is required")
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate startDate;
+
+    /** Last day of the schedule, inclusive. */
+    @NotNull(message = "endDate is required")
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate endDate;
+
+    /** Days the schedule applies to; every day when empty. */
+    private Set<DayOfWeek> daysOfWeek;
+
+    @NotNull(message = "dailyStartTime is required")
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime dailyStartTime;
+
+    @NotNull(message = "dailyEndTime is required")
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime dailyEndTime;
+
+    @NotNull(message = "slotMinutes is required")
+    @Min(value = 5, message = "slotMinutes must be at least 5")
+    private Integer slotMinutes;
+
+    private List<LocalDate> excludedDates;
+}
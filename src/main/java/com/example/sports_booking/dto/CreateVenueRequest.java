@@ -1,5 +1,7 @@
 package com.example.sports_booking.dto;
 
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -19,4 +21,13 @@ public class CreateVenueRequest {
 
     @NotBlank(message = "sportId is required")
     private String sportId;
+
+    /** Optional; must be given together with longitude for the venue to show up in nearby searches. */
+    @DecimalMin(value = "-90.0", message = "latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "latitude must be between -90 and 90")
+    private Double latitude;
+
+    @DecimalMin(value = "-180.0", message = "longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "longitude must be between -180 and 180")
+    private Double longitude;
 }
@@ -0,0 +1,24 @@
+package com.example.sports_booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * A venue that is free for the requested time window, and the days on which it is.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FreeWindowDTO {
+    private Long venueId;
+    private String venueName;
+    private String location;
+    private String sportId;
+    private List<LocalDate> dates;
+}
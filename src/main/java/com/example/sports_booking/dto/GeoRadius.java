@@ -0,0 +1,19 @@
+package com.example.sports_booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A circle to restrict venue searches to: a WGS84 point in degrees and a radius in kilometres.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GeoRadius {
+    private Double latitude;
+    private Double longitude;
+    private Double radiusKm;
+}
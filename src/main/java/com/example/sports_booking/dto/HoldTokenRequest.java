@@ -0,0 +1,16 @@
+package com.example.sports_booking.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HoldTokenRequest {
+    @NotBlank(message = "holdToken is required")
+    private String holdToken;
+}
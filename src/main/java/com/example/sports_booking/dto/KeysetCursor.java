@@ -0,0 +1,33 @@
+package com.example.sports_booking.dto;
+
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque seek position for lists ordered by a timestamp and an id tie-breaker.
+ * Clients receive it in the {@code X-Next-Cursor} header and pass it back as {@code cursor}.
+ */
+@Value
+public class KeysetCursor {
+    LocalDateTime time;
+    Long id;
+
+    public String encode() {
+        String raw = time + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.sports_booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class KeysetPage<T> {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private List<T> items;
+
+    /** Cursor for the following page, or {@code null} when this is the last one. */
+    private String nextCursor;
+}
@@ -0,0 +1,23 @@
+package com.example.sports_booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A venue found by a nearby search, with its great-circle distance from the search point.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NearbyVenueDTO {
+    private Long id;
+    private String name;
+    private String location;
+    private String sportId;
+    private Double latitude;
+    private Double longitude;
+    private Double distanceKm;
+}
@@ -0,0 +1,29 @@
+package com.example.sports_booking.dto;
+
+import com.example.sports_booking.entity.OutboxEventType;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A booking or slot change as handed to an outbox sink. {@code id} increases with every event of a venue.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEventDTO {
+    private Long id;
+    private OutboxEventType type;
+    private Long venueId;
+    private Long slotId;
+    private Long bookingId;
+    private String userName;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss.SSS")
+    private LocalDateTime occurredAt;
+}
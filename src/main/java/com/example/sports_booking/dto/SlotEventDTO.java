@@ -0,0 +1,31 @@
+package com.example.sports_booking.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One slot status change on the event feed. {@code sequence} increases by one per change on this node.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SlotEventDTO {
+    private long sequence;
+    private Long slotId;
+    private Long venueId;
+    private String sportId;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime startTime;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime endTime;
+
+    private String status;
+}
@@ -17,6 +17,8 @@ public class VenueDTO {
     private String name;
     private String location;
     private String sportId;
+    private Double latitude;
+    private Double longitude;
 
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
     private LocalDateTime createdAt;
@@ -18,14 +18,15 @@ import java.time.LocalDateTime;
 @Table(indexes = {
     @Index(name = "idx_slot_id", columnList = "slot_id"),
     @Index(name = "idx_user_name", columnList = "user_name"),
-    @Index(name = "idx_booking_status", columnList = "status")
+    @Index(name = "idx_booking_status", columnList = "status"),
+    @Index(name = "idx_booking_created", columnList = "created_at")
 })
 public class Booking {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "slot_id", nullable = false)
     private Slot slot;
 
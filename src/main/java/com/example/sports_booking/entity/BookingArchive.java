@@ -0,0 +1,44 @@
+package com.example.sports_booking.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A booking moved out of {@code booking} together with its {@link SlotArchive slot}, keeping its id.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "booking_archive", indexes = {
+    @Index(name = "idx_booking_archive_slot", columnList = "slot_id"),
+    @Index(name = "idx_booking_archive_user", columnList = "user_name")
+})
+public class BookingArchive {
+    @Id
+    private Long id;
+
+    @Column(name = "slot_id", nullable = false)
+    private Long slotId;
+
+    @Column(name = "user_name", nullable = false)
+    private String userName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private BookingStatus status;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "cancelled_at")
+    private LocalDateTime cancelledAt;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+}
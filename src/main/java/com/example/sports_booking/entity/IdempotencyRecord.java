@@ -0,0 +1,35 @@
+package com.example.sports_booking.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * The response of a request sent with an {@code Idempotency-Key}, committed with the change it made.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "idempotency_key", indexes = {
+    @Index(name = "idx_idempotency_expires", columnList = "expires_at")
+})
+public class IdempotencyRecord {
+    @Id
+    @Column(name = "idempotency_key", length = 100)
+    private String key;
+
+    /** SHA-256 of the operation and its arguments, so a key reused for another request is refused. */
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    @Column(name = "response_body", columnDefinition = "TEXT")
+    private String responseBody;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
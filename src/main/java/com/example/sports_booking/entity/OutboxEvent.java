@@ -0,0 +1,40 @@
+package com.example.sports_booking.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A booking or slot change waiting to be relayed downstream. Written in the transaction that made the change
+ * and deleted once delivered.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "outbox_event")
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 30)
+    private OutboxEventType eventType;
+
+    @Column(name = "venue_id", nullable = false)
+    private Long venueId;
+
+    @Column(name = "slot_id", nullable = false)
+    private Long slotId;
+
+    @Column(name = "booking_id")
+    private Long bookingId;
+
+    @Column(name = "user_name")
+    private String userName;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
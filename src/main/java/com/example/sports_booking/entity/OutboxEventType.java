@@ -0,0 +1,5 @@
+package com.example.sports_booking.entity;
+
+public enum OutboxEventType {
+    BOOKING_CONFIRMED, BOOKING_CANCELLED, SLOT_CREATED, SLOT_HELD, SLOT_RELEASED
+}
@@ -0,0 +1,24 @@
+package com.example.sports_booking.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Single row stamped on the primary at a fixed rate; its age as seen on a replica is that replica's lag.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "replication_heartbeat")
+public class ReplicationHeartbeat {
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private LocalDateTime beatAt;
+}
@@ -20,7 +20,9 @@ import java.time.LocalDateTime;
             @Index(name = "idx_venue_id", columnList = "venue_id"),
             @Index(name = "idx_status", columnList = "status"),
             @Index(name = "idx_venue_time", columnList = "venue_id,start_time,end_time"),
-            @Index(name = "idx_slot_time_range", columnList = "start_time,end_time")
+            @Index(name = "idx_slot_time_range", columnList = "start_time,end_time"),
+            @Index(name = "idx_slot_status_time", columnList = "status,start_time"),
+            @Index(name = "idx_slot_hold_expiry", columnList = "status,hold_expires_at")
         },
         uniqueConstraints = @UniqueConstraint(
                 name = "uk_venue_slot_time",
@@ -32,7 +34,7 @@ public class Slot {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "venue_id", nullable = false)
     private Venue venue;
 
@@ -47,6 +49,16 @@ public class Slot {
     @Builder.Default
     private SlotStatus status = SlotStatus.AVAILABLE;
 
+    /** Set while the slot is {@link SlotStatus#HELD}; whoever presents it can confirm or release the hold. */
+    @Column(name = "hold_token", length = 36)
+    private String holdToken;
+
+    @Column(name = "hold_user_name")
+    private String holdUserName;
+
+    @Column(name = "hold_expires_at")
+    private LocalDateTime holdExpiresAt;
+
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,43 @@
+package com.example.sports_booking.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A slot moved out of {@code slot} some time after it ended, keeping its id. Written only by the archiver.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "slot_archive", indexes = {
+    @Index(name = "idx_slot_archive_venue_time", columnList = "venue_id,start_time")
+})
+public class SlotArchive {
+    @Id
+    private Long id;
+
+    @Column(name = "venue_id", nullable = false)
+    private Long venueId;
+
+    @Column(name = "start_time", nullable = false)
+    private LocalDateTime startTime;
+
+    @Column(name = "end_time", nullable = false)
+    private LocalDateTime endTime;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private SlotStatus status;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+}
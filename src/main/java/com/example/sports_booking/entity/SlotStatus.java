@@ -1,5 +1,5 @@
 package com.example.sports_booking.entity;
 
 public enum SlotStatus {
-    AVAILABLE, BOOKED
+    AVAILABLE, HELD, BOOKED
 }
@@ -32,6 +32,11 @@ public class Venue {
     @Column(nullable = false, name = "sport_id")
     private String sportId;
 
+    /** WGS84 coordinates in degrees; both null for venues created without a position. */
+    private Double latitude;
+
+    private Double longitude;
+
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
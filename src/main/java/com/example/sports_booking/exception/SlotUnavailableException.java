@@ -0,0 +1,11 @@
+package com.example.sports_booking.exception;
+
+public class SlotUnavailableException extends RuntimeException {
+    public SlotUnavailableException(String message) {
+        super(message);
+    }
+
+    public SlotUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
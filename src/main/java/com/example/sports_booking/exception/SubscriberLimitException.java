@@ -0,0 +1,7 @@
+package com.example.sports_booking.exception;
+
+public class SubscriberLimitException extends RuntimeException {
+    public SubscriberLimitException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.sports_booking.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves ended slots and their bookings from the hot tables into {@code slot_archive} and {@code booking_archive}.
+ * Every method must run inside the caller's transaction so a batch is copied and deleted atomically.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ArchiveJdbcRepository {
+
+    // Walks idx_slot_time_range; a slot that ended before the cutoff also started before it
+    private static final String LOCK_ENDED_SQL =
+            "SELECT id, venue_id FROM slot WHERE start_time < ? AND end_time < ? ORDER BY start_time, id LIMIT ? FOR UPDATE";
+
+    private static final String COPY_BOOKINGS_SQL =
+            "INSERT INTO booking_archive (id, slot_id, user_name, status, created_at, updated_at, cancelled_at, archived_at) " +
+            "SELECT id, slot_id, user_name, status, created_at, updated_at, cancelled_at, ? FROM booking WHERE slot_id IN ";
+
+    private static final String COPY_SLOTS_SQL =
+            "INSERT INTO slot_archive (id, venue_id, start_time, end_time, status, created_at, updated_at, archived_at) " +
+            "SELECT id, venue_id, start_time, end_time, status, created_at, updated_at, ? FROM slot WHERE id IN ";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Locks up to {@code limit} of the earliest slots that ended before {@code cutoff} and returns their venue ids
+     * keyed by slot id.
+     */
+    public Map<Long, Long> lockSlotsEndedBefore(LocalDateTime cutoff, int limit) {
+        Timestamp timestamp = Timestamp.valueOf(cutoff);
+        Map<Long, Long> slots = new LinkedHashMap<>();
+        jdbcTemplate.query(LOCK_ENDED_SQL, (RowCallbackHandler) rs -> slots.put(rs.getLong("id"), rs.getLong("venue_id")),
+                timestamp, timestamp, limit);
+        return slots;
+    }
+
+    /** Copies the bookings of the slots into {@code booking_archive}, deletes them and returns how many moved. */
+    public int archiveBookings(Collection<Long> slotIds, LocalDateTime archivedAt) {
+        String in = in(slotIds);
+        jdbcTemplate.update(COPY_BOOKINGS_SQL + in, args(archivedAt, slotIds));
+        return jdbcTemplate.update("DELETE FROM booking WHERE slot_id IN " + in, slotIds.toArray());
+    }
+
+    /** Copies the slots into {@code slot_archive} and deletes them; their bookings must be archived first. */
+    public int archiveSlots(Collection<Long> slotIds, LocalDateTime archivedAt) {
+        String in = in(slotIds);
+        jdbcTemplate.update(COPY_SLOTS_SQL + in, args(archivedAt, slotIds));
+        return jdbcTemplate.update("DELETE FROM slot WHERE id IN " + in, slotIds.toArray());
+    }
+
+    private static String in(Collection<Long> ids) {
+        return "(" + String.join(",", Collections.nCopies(ids.size(), "?")) + ")";
+    }
+
+    private static Object[] args(LocalDateTime archivedAt, Collection<Long> ids) {
+        List<Object> args = new ArrayList<>(ids.size() + 1);
+        args.add(Timestamp.valueOf(archivedAt));
+        args.addAll(ids);
+        return args.toArray();
+    }
+}
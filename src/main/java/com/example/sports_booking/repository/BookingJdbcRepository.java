@@ -0,0 +1,177 @@
+package com.example.sports_booking.repository;
+
+import com.example.sports_booking.dto.BookingDTO;
+import com.example.sports_booking.dto.BookingFilter;
+import com.example.sports_booking.dto.KeysetCursor;
+import com.example.sports_booking.entity.BookingStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Plain JDBC access to bookings for paths where per-entity Hibernate inserts are too chatty.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BookingJdbcRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO booking (slot_id, user_name, status, created_at, updated_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String SELECT_DTO_SQL =
+            "SELECT b.id, b.slot_id, s.venue_id, v.name AS venue_name, b.user_name, s.start_time, s.end_time, " +
+            "b.status, b.created_at, b.cancelled_at " +
+            "FROM booking b JOIN slot s ON s.id = b.slot_id JOIN venue v ON v.id = s.venue_id";
+
+    // The venue may have been deleted since the slot was archived
+    private static final String SELECT_ARCHIVED_DTO_SQL =
+            "SELECT b.id, b.slot_id, s.venue_id, v.name AS venue_name, b.user_name, s.start_time, s.end_time, " +
+            "b.status, b.created_at, b.cancelled_at " +
+            "FROM booking_archive b JOIN slot_archive s ON s.id = b.slot_id LEFT JOIN venue v ON v.id = s.venue_id";
+
+    private static final RowMapper<BookingDTO> DTO_MAPPER = (rs, rowNum) -> BookingDTO.builder()
+            .id(rs.getLong("id"))
+            .slotId(rs.getLong("slot_id"))
+            .venueId(rs.getLong("venue_id"))
+            .venueName(rs.getString("venue_name"))
+            .userName(rs.getString("user_name"))
+            .slotStartTime(toLocalDateTime(rs, "start_time"))
+            .slotEndTime(toLocalDateTime(rs, "end_time"))
+            .status(rs.getString("status"))
+            .createdAt(toLocalDateTime(rs, "created_at"))
+            .cancelledAt(toLocalDateTime(rs, "cancelled_at"))
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${streaming.fetch-size:" + Integer.MIN_VALUE + "}")
+    private int streamingFetchSize;
+
+    public Optional<BookingDTO> findById(Long id) {
+        return jdbcTemplate.query(SELECT_DTO_SQL + " WHERE b.id = ?", DTO_MAPPER, id).stream().findFirst();
+    }
+
+    /** Looks a booking up among those moved to {@code booking_archive}. */
+    public Optional<BookingDTO> findArchivedById(Long id) {
+        return jdbcTemplate.query(SELECT_ARCHIVED_DTO_SQL + " WHERE b.id = ?", DTO_MAPPER, id).stream().findFirst();
+    }
+
+    /**
+     * Returns up to {@code limit} bookings matching the filter that sort after {@code after}
+     * in {@code (created_at, id)} order.
+     */
+    public List<BookingDTO> findPage(BookingFilter filter, KeysetCursor after, int limit) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(SELECT_DTO_SQL).append(where(filter, args));
+        if (after != null) {
+            sql.append(args.isEmpty() ? " WHERE " : " AND ")
+                    .append("(b.created_at > ? OR (b.created_at = ? AND b.id > ?))");
+            args.add(Timestamp.valueOf(after.getTime()));
+            args.add(Timestamp.valueOf(after.getTime()));
+            args.add(after.getId());
+        }
+        sql.append(" ORDER BY b.created_at, b.id LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), DTO_MAPPER, args.toArray());
+    }
+
+    /**
+     * Passes every booking matching the filter to {@code consumer} in {@code (created_at, id)} order,
+     * reading from a forward-only cursor so memory use does not depend on the number of rows.
+     * If the consumer throws, the statement is cancelled.
+     */
+    public void stream(BookingFilter filter, Consumer<BookingDTO> consumer) {
+        List<Object> args = new ArrayList<>();
+        String sql = SELECT_DTO_SQL + where(filter, args) + " ORDER BY b.created_at, b.id";
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(streamingFetchSize);
+            new ArgumentPreparedStatementSetter(args.toArray()).setValues(ps);
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            BookingDTO row = DTO_MAPPER.mapRow(rs, 0);
+            try {
+                consumer.accept(row);
+            } catch (RuntimeException e) {
+                // Stop the server from producing rows nobody will read before the cursor is closed
+                rs.getStatement().cancel();
+                throw e;
+            }
+        });
+    }
+
+    private static String where(BookingFilter filter, List<Object> args) {
+        List<String> conditions = new ArrayList<>();
+        if (filter.getStatus() != null) {
+            conditions.add("b.status = ?");
+            args.add(filter.getStatus().name());
+        }
+        if (filter.getVenueId() != null) {
+            conditions.add("s.venue_id = ?");
+            args.add(filter.getVenueId());
+        }
+        if (filter.getCreatedFrom() != null) {
+            conditions.add("b.created_at >= ?");
+            args.add(Timestamp.valueOf(filter.getCreatedFrom()));
+        }
+        if (filter.getCreatedTo() != null) {
+            conditions.add("b.created_at < ?");
+            args.add(Timestamp.valueOf(filter.getCreatedTo()));
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private static LocalDateTime toLocalDateTime(ResultSet rs, String column) throws SQLException {
+        Timestamp value = rs.getTimestamp(column);
+        return value != null ? value.toLocalDateTime() : null;
+    }
+
+    /**
+     * Inserts one booking per slot as a single JDBC batch within the caller's transaction
+     * and returns the generated ids in the order of {@code slotIds}.
+     */
+    public List<Long> batchInsert(List<Long> slotIds, String userName, BookingStatus status, LocalDateTime createdAt) {
+        Timestamp timestamp = Timestamp.valueOf(createdAt);
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setLong(1, slotIds.get(i));
+                        ps.setString(2, userName);
+                        ps.setString(3, status.name());
+                        ps.setTimestamp(4, timestamp);
+                        ps.setTimestamp(5, timestamp);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return slotIds.size();
+                    }
+                },
+                keys);
+        return keys.getKeyList().stream()
+                .map(row -> ((Number) row.values().iterator().next()).longValue())
+                .collect(Collectors.toList());
+    }
+}
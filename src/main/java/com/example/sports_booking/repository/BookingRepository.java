@@ -2,13 +2,19 @@ package com.example.sports_booking.repository;
 
 import com.example.sports_booking.entity.Booking;
 import com.example.sports_booking.entity.BookingStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Booking b WHERE b.id = :id")
+    Booking lockById(@Param("id") Long id);
+
     List<Booking> findByUserName(String userName);
 
     List<Booking> findByStatus(BookingStatus status);
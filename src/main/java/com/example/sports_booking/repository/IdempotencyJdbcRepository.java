@@ -0,0 +1,72 @@
+package com.example.sports_booking.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Plain JDBC access to stored responses of idempotent requests.
+ */
+@Repository
+@RequiredArgsConstructor
+public class IdempotencyJdbcRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO idempotency_key (idempotency_key, fingerprint, response_body, created_at, expires_at) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Returns the unexpired response stored under {@code key}. */
+    public Optional<StoredResponse> find(String key, LocalDateTime now) {
+        return jdbcTemplate.query(
+                "SELECT fingerprint, response_body, expires_at FROM idempotency_key " +
+                "WHERE idempotency_key = ? AND expires_at > ?",
+                (rs, rowNum) -> new StoredResponse(rs.getString("fingerprint"), rs.getString("response_body"),
+                        rs.getTimestamp("expires_at").toLocalDateTime()),
+                key, Timestamp.valueOf(now)).stream().findFirst();
+    }
+
+    /**
+     * Stores a response within the caller's transaction, replacing an expired one under the same key.
+     * Throws {@link org.springframework.dao.DuplicateKeyException} if an unexpired one exists.
+     */
+    public void insert(String key, String fingerprint, String responseBody, LocalDateTime now, LocalDateTime expiresAt) {
+        jdbcTemplate.update("DELETE FROM idempotency_key WHERE idempotency_key = ? AND expires_at <= ?",
+                key, Timestamp.valueOf(now));
+        jdbcTemplate.update(INSERT_SQL, key, fingerprint, responseBody, Timestamp.valueOf(now), Timestamp.valueOf(expiresAt));
+    }
+
+    /** Deletes up to {@code limit} expired responses and returns how many were deleted. */
+    public int deleteExpired(LocalDateTime now, int limit) {
+        return jdbcTemplate.update("DELETE FROM idempotency_key WHERE expires_at <= ? LIMIT ?", Timestamp.valueOf(now), limit);
+    }
+
+    public static final class StoredResponse {
+        private final String fingerprint;
+        private final String body;
+        private final LocalDateTime expiresAt;
+
+        private StoredResponse(String fingerprint, String body, LocalDateTime expiresAt) {
+            this.fingerprint = fingerprint;
+            this.body = body;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        public String getBody() {
+            return body;
+        }
+
+        public LocalDateTime getExpiresAt() {
+            return expiresAt;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.sports_booking.repository;
+
+import com.example.sports_booking.dto.OutboxEventDTO;
+import com.example.sports_booking.entity.OutboxEventType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Plain JDBC access to {@code outbox_event}. Inserts run inside the caller's transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OutboxJdbcRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO outbox_event (event_type, venue_id, slot_id, booking_id, user_name, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_FOR_SLOTS_SQL =
+            "INSERT INTO outbox_event (event_type, venue_id, slot_id, created_at) " +
+            "SELECT ?, venue_id, id, ? FROM slot WHERE id IN ";
+
+    private static final RowMapper<OutboxEventDTO> MAPPER = (rs, rowNum) -> OutboxEventDTO.builder()
+            .id(rs.getLong("id"))
+            .type(OutboxEventType.valueOf(rs.getString("event_type")))
+            .venueId(rs.getLong("venue_id"))
+            .slotId(rs.getLong("slot_id"))
+            .bookingId(rs.getObject("booking_id", Long.class))
+            .userName(rs.getString("user_name"))
+            .occurredAt(rs.getTimestamp("created_at").toLocalDateTime())
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:20}")
+    private int batchSize;
+
+    /** Inserts the events as one JDBC batch. */
+    public void insert(List<OutboxEventDTO> events, LocalDateTime now) {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        jdbcTemplate.batchUpdate(INSERT_SQL, events, batchSize, (ps, event) -> {
+            ps.setString(1, event.getType().name());
+            ps.setLong(2, event.getVenueId());
+            ps.setLong(3, event.getSlotId());
+            if (event.getBookingId() != null) {
+                ps.setLong(4, event.getBookingId());
+            } else {
+                ps.setNull(4, Types.BIGINT);
+            }
+            ps.setString(5, event.getUserName());
+            ps.setTimestamp(6, timestamp);
+        });
+    }
+
+    /** Inserts one event per slot with a single statement that reads each slot's venue. */
+    public void insertForSlots(OutboxEventType type, Collection<Long> slotIds, LocalDateTime now) {
+        List<Object> args = new ArrayList<>(slotIds.size() + 2);
+        args.add(type.name());
+        args.add(Timestamp.valueOf(now));
+        args.addAll(slotIds);
+        jdbcTemplate.update(INSERT_FOR_SLOTS_SQL + "(" + String.join(",", Collections.nCopies(slotIds.size(), "?")) + ") ORDER BY id",
+                args.toArray());
+    }
+
+    /** Returns up to {@code limit} events with ids above {@code afterId}, in id order. */
+    public List<OutboxEventDTO> findAfter(long afterId, int limit) {
+        return jdbcTemplate.query(
+                "SELECT id, event_type, venue_id, slot_id, booking_id, user_name, created_at FROM outbox_event " +
+                "WHERE id > ? ORDER BY id LIMIT ?",
+                MAPPER, afterId, limit);
+    }
+
+    public void delete(Collection<Long> ids) {
+        jdbcTemplate.update("DELETE FROM outbox_event WHERE id IN (" + String.join(",", Collections.nCopies(ids.size(), "?")) + ")",
+                ids.toArray());
+    }
+}
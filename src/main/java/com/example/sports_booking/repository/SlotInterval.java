@@ -0,0 +1,12 @@
+package com.example.sports_booking.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Time range of a slot without its venue or status, used to warm in-memory indexes and check overlaps.
+ */
+public interface SlotInterval {
+    LocalDateTime getStartTime();
+
+    LocalDateTime getEndTime();
+}
@@ -0,0 +1,161 @@
+package com.example.sports_booking.repository;
+
+import com.example.sports_booking.dto.AvailableVenueDTO;
+import com.example.sports_booking.entity.SlotStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Plain JDBC access to slots. Hibernate cannot batch inserts into IDENTITY tables, so bulk inserts go through
+ * {@link JdbcTemplate} batches instead, each with its own {@link KeyHolder} so the generated ids can be returned.
+ * Availability reads stream their rows from forward-only cursors.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SlotJdbcRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO slot (venue_id, start_time, end_time, status, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String AVAILABLE_VENUE_SLOTS_SQL =
+            "SELECT v.id AS venue_id, v.name, v.location, v.sport_id, s.id AS slot_id, s.start_time, s.end_time " +
+            "FROM slot s JOIN venue v ON v.id = s.venue_id " +
+            "WHERE s.status = ? AND s.start_time >= ? AND s.end_time <= ?";
+
+    private static final String AVAILABLE_SLOT_RANGES_SQL =
+            "SELECT s.venue_id, v.sport_id, s.start_time, s.end_time FROM slot s JOIN venue v ON v.id = s.venue_id " +
+            "WHERE s.status = ? AND s.end_time > ? AND s.start_time < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:20}")
+    private int batchSize;
+
+    @Value("${streaming.fetch-size:" + Integer.MIN_VALUE + "}")
+    private int streamingFetchSize;
+
+    /**
+     * Passes available slots joined with their venue to {@code consumer} in start time and id order, reading
+     * from a forward-only cursor. {@code venueIds}, when not null, restricts the venues. If the consumer throws,
+     * the statement is cancelled so the server stops producing rows nobody will read.
+     */
+    public void streamAvailableVenueSlots(String sportId, Collection<Long> venueIds, LocalDateTime startTime,
+                                          LocalDateTime endTime, Consumer<AvailableVenueDTO> consumer) {
+        if (venueIds != null && venueIds.isEmpty()) {
+            return;
+        }
+        List<Object> args = new ArrayList<>(List.of(
+                SlotStatus.AVAILABLE.name(), Timestamp.valueOf(startTime), Timestamp.valueOf(endTime)));
+        StringBuilder sql = new StringBuilder(AVAILABLE_VENUE_SLOTS_SQL);
+        if (sportId != null && !sportId.isEmpty()) {
+            sql.append(" AND v.sport_id = ?");
+            args.add(sportId);
+        }
+        if (venueIds != null) {
+            sql.append(" AND v.id IN (").append(String.join(",", Collections.nCopies(venueIds.size(), "?"))).append(")");
+            args.addAll(venueIds);
+        }
+        sql.append(" ORDER BY s.start_time, s.id");
+
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(streamingFetchSize);
+            new ArgumentPreparedStatementSetter(args.toArray()).setValues(ps);
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            AvailableVenueDTO row = AvailableVenueDTO.builder()
+                    .venueId(rs.getLong("venue_id"))
+                    .venueName(rs.getString("name"))
+                    .location(rs.getString("location"))
+                    .sportId(rs.getString("sport_id"))
+                    .slotId(rs.getLong("slot_id"))
+                    .slotStartTime(rs.getTimestamp("start_time").toLocalDateTime())
+                    .slotEndTime(rs.getTimestamp("end_time").toLocalDateTime())
+                    .build();
+            try {
+                consumer.accept(row);
+            } catch (RuntimeException e) {
+                rs.getStatement().cancel();
+                throw e;
+            }
+        });
+    }
+
+    /**
+     * Passes every available slot overlapping {@code [from, to)} to {@code handler}, in no particular order,
+     * reading from a forward-only cursor.
+     */
+    public void streamAvailableSlotRanges(LocalDateTime from, LocalDateTime to, SlotRangeHandler handler) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(AVAILABLE_SLOT_RANGES_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(streamingFetchSize);
+            ps.setString(1, SlotStatus.AVAILABLE.name());
+            ps.setTimestamp(2, Timestamp.valueOf(from));
+            ps.setTimestamp(3, Timestamp.valueOf(to));
+            return ps;
+        }, (RowCallbackHandler) rs -> handler.accept(
+                rs.getLong(1),
+                rs.getString(2),
+                rs.getTimestamp(3).toLocalDateTime(),
+                rs.getTimestamp(4).toLocalDateTime()));
+    }
+
+    /**
+     * Inserts the given {@code [start, end]} pairs for a venue in JDBC batches, within the caller's transaction,
+     * and returns the generated ids in input order.
+     */
+    public List<Long> batchInsert(Long venueId, List<LocalDateTime[]> ranges, SlotStatus status) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Long> ids = new ArrayList<>(ranges.size());
+        for (int from = 0; from < ranges.size(); from += batchSize) {
+            List<LocalDateTime[]> chunk = ranges.subList(from, Math.min(from + batchSize, ranges.size()));
+            KeyHolder keys = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(
+                    con -> con.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            LocalDateTime[] range = chunk.get(i);
+                            ps.setLong(1, venueId);
+                            ps.setTimestamp(2, Timestamp.valueOf(range[0]));
+                            ps.setTimestamp(3, Timestamp.valueOf(range[1]));
+                            ps.setString(4, status.name());
+                            ps.setTimestamp(5, now);
+                            ps.setTimestamp(6, now);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return chunk.size();
+                        }
+                    },
+                    keys);
+            keys.getKeyList().forEach(row -> ids.add(((Number) row.values().iterator().next()).longValue()));
+        }
+        return ids;
+    }
+
+    @FunctionalInterface
+    public interface SlotRangeHandler {
+        void accept(long venueId, String sportId, LocalDateTime startTime, LocalDateTime endTime);
+    }
+}
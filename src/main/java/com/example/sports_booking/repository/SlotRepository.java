@@ -1,15 +1,20 @@
 package com.example.sports_booking.repository;
 
+import com.example.sports_booking.dto.AvailableVenueDTO;
 import com.example.sports_booking.entity.Slot;
 import com.example.sports_booking.entity.SlotStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import jakarta.persistence.LockModeType;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface SlotRepository extends JpaRepository<Slot, Long> {
 
@@ -17,18 +22,119 @@ public interface SlotRepository extends JpaRepository<Slot, Long> {
     @Query("SELECT s FROM Slot s WHERE s.id = :id")
     Slot lockById(Long id);
 
-    @Query("SELECT s FROM Slot s WHERE s.venue.id = :venueId AND s.status = :status AND " +
-           "s.startTime >= :startTime AND s.endTime <= :endTime")
-    List<Slot> findAvailableSlots(@Param("venueId") Long venueId,
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Slot s WHERE s.id IN :ids ORDER BY s.id")
+    List<Slot> lockAllById(@Param("ids") List<Long> ids);
+
+    @Query("SELECT s FROM Slot s JOIN FETCH s.venue WHERE s.id IN :ids ORDER BY s.id")
+    List<Slot> findAllWithVenueById(@Param("ids") List<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Slot s SET s.status = :to, s.updatedAt = :now WHERE s.id IN :ids AND s.status = :from")
+    int transitionStatusAll(@Param("ids") List<Long> ids,
+                            @Param("from") SlotStatus from,
+                            @Param("to") SlotStatus to,
+                            @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Slot s SET s.status = :to, s.updatedAt = :now WHERE s.id = :id AND s.status = :from")
+    int transitionStatus(@Param("id") Long id,
+                         @Param("from") SlotStatus from,
+                         @Param("to") SlotStatus to,
+                         @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Slot s SET s.status = :held, s.holdToken = :token, s.holdUserName = :userName, " +
+           "s.holdExpiresAt = :expiresAt, s.updatedAt = :now WHERE s.id = :id AND s.status = :available")
+    int placeHold(@Param("id") Long id,
+                  @Param("token") String token,
+                  @Param("userName") String userName,
+                  @Param("expiresAt") LocalDateTime expiresAt,
+                  @Param("now") LocalDateTime now,
+                  @Param("available") SlotStatus available,
+                  @Param("held") SlotStatus held);
+
+    @Query("SELECT s FROM Slot s JOIN FETCH s.venue WHERE s.id = :id AND s.status = :held AND s.holdToken = :token")
+    Optional<Slot> findHeld(@Param("id") Long id, @Param("token") String token, @Param("held") SlotStatus held);
+
+    /** Turns an unexpired hold into a booking; the caller inserts the booking row. */
+    @Modifying
+    @Query("UPDATE Slot s SET s.status = :booked, s.holdToken = NULL, s.holdUserName = NULL, s.holdExpiresAt = NULL, " +
+           "s.updatedAt = :now WHERE s.id = :id AND s.status = :held AND s.holdToken = :token AND s.holdExpiresAt > :now")
+    int convertHold(@Param("id") Long id,
+                    @Param("token") String token,
+                    @Param("now") LocalDateTime now,
+                    @Param("held") SlotStatus held,
+                    @Param("booked") SlotStatus booked);
+
+    @Modifying
+    @Query("UPDATE Slot s SET s.status = :available, s.holdToken = NULL, s.holdUserName = NULL, s.holdExpiresAt = NULL, " +
+           "s.updatedAt = :now WHERE s.id = :id AND s.status = :held AND s.holdToken = :token")
+    int releaseHold(@Param("id") Long id,
+                    @Param("token") String token,
+                    @Param("now") LocalDateTime now,
+                    @Param("held") SlotStatus held,
+                    @Param("available") SlotStatus available);
+
+    /** Releases the given holds; the caller has locked them with {@link #lockExpiredHoldIds}. */
+    @Modifying
+    @Query("UPDATE Slot s SET s.status = :available, s.holdToken = NULL, s.holdUserName = NULL, s.holdExpiresAt = NULL, " +
+           "s.updatedAt = :now WHERE s.id IN :ids AND s.status = :held AND s.holdExpiresAt <= :now")
+    int releaseExpiredHolds(@Param("ids") List<Long> ids,
+                            @Param("now") LocalDateTime now,
+                            @Param("held") SlotStatus held,
+                            @Param("available") SlotStatus available);
+
+    /** Locks the expired holds, so nothing else can release or re-hold them until the caller commits. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s.id FROM Slot s WHERE s.status = :held AND s.holdExpiresAt <= :now ORDER BY s.id")
+    List<Long> lockExpiredHoldIds(@Param("now") LocalDateTime now, @Param("held") SlotStatus held);
+
+    /** Locks the holds among {@code tokens} that are still in place and have expired. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s.id FROM Slot s WHERE s.holdToken IN :tokens AND s.status = :held AND s.holdExpiresAt <= :now " +
+           "ORDER BY s.id")
+    List<Long> lockExpiredHoldIdsByToken(@Param("tokens") List<String> tokens,
+                                         @Param("now") LocalDateTime now,
+                                         @Param("held") SlotStatus held);
+
+    @Query("SELECT s.id AS id, v.id AS venueId, v.sportId AS sportId, s.startTime AS startTime, " +
+           "s.endTime AS endTime, s.status AS status FROM Slot s JOIN s.venue v WHERE s.id IN :ids ORDER BY s.id")
+    List<SlotStatusView> findStatusViews(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT s FROM Slot s JOIN FETCH s.venue WHERE s.id = :id")
+    Optional<Slot> findWithVenueById(@Param("id") Long id);
+
+    @Query("SELECT s.id AS id, s.startTime AS startTime, s.endTime AS endTime, s.status AS status, " +
+           "s.createdAt AS createdAt, s.updatedAt AS updatedAt FROM Slot s WHERE s.venue.id = :venueId AND " +
+           "s.status = :status AND s.startTime >= :startTime AND s.endTime <= :endTime ORDER BY s.startTime, s.id")
+    List<SlotSummary> findAvailableSlots(@Param("venueId") Long venueId,
                                    @Param("startTime") LocalDateTime startTime,
                                    @Param("endTime") LocalDateTime endTime,
                                    @Param("status") SlotStatus status);
 
-    @Query("SELECT s FROM Slot s WHERE s.venue.id = :venueId AND " +
-           "((s.startTime < :endTime AND s.endTime > :startTime))")
-    List<Slot> findOverlappingSlots(@Param("venueId") Long venueId,
-                                     @Param("startTime") LocalDateTime startTime,
-                                     @Param("endTime") LocalDateTime endTime);
+    @Query("SELECT s.startTime AS startTime, s.endTime AS endTime FROM Slot s WHERE s.venue.id = :venueId AND " +
+           "s.startTime < :endTime AND s.endTime > :startTime")
+    List<SlotInterval> findOverlappingIntervals(@Param("venueId") Long venueId,
+                                                @Param("startTime") LocalDateTime startTime,
+                                                @Param("endTime") LocalDateTime endTime);
+
+    @Query("SELECT s.startTime AS startTime, s.endTime AS endTime FROM Slot s WHERE s.venue.id = :venueId")
+    List<SlotInterval> findIntervalsByVenueId(@Param("venueId") Long venueId);
+
+    @Query("SELECT s.id AS id, s.startTime AS startTime, s.endTime AS endTime, s.status AS status, " +
+           "s.createdAt AS createdAt, s.updatedAt AS updatedAt FROM Slot s WHERE s.venue.id = :venueId AND " +
+           "(:from IS NULL OR s.startTime >= :from) AND (:to IS NULL OR s.startTime < :to) AND " +
+           "(:status IS NULL OR s.status = :status) AND " +
+           "(:afterId IS NULL OR s.startTime > :afterTime OR (s.startTime = :afterTime AND s.id > :afterId)) " +
+           "ORDER BY s.startTime, s.id")
+    List<SlotSummary> findVenueSchedule(@Param("venueId") Long venueId,
+                                        @Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to,
+                                        @Param("status") SlotStatus status,
+                                        @Param("afterTime") LocalDateTime afterTime,
+                                        @Param("afterId") Long afterId,
+                                        Pageable pageable);
 
     @Query("SELECT s FROM Slot s WHERE s.venue.sportId = :sportId AND s.status = :status AND " +
            "s.startTime >= :startTime AND s.endTime <= :endTime")
@@ -36,4 +142,46 @@ public interface SlotRepository extends JpaRepository<Slot, Long> {
                                          @Param("startTime") LocalDateTime startTime,
                                          @Param("endTime") LocalDateTime endTime,
                                          @Param("status") SlotStatus status);
+
+    @Query("SELECT new com.example.sports_booking.dto.AvailableVenueDTO(" +
+           "v.id, v.name, v.location, v.sportId, s.id, s.startTime, s.endTime) " +
+           "FROM Slot s JOIN s.venue v WHERE s.status = :status AND " +
+           "s.startTime >= :startTime AND s.endTime <= :endTime AND " +
+           "(s.startTime > :afterTime OR (s.startTime = :afterTime AND s.id > :afterId)) " +
+           "ORDER BY s.startTime, s.id")
+    List<AvailableVenueDTO> findAvailableVenueSlots(@Param("startTime") LocalDateTime startTime,
+                                                    @Param("endTime") LocalDateTime endTime,
+                                                    @Param("status") SlotStatus status,
+                                                    @Param("afterTime") LocalDateTime afterTime,
+                                                    @Param("afterId") Long afterId,
+                                                    Pageable pageable);
+
+    @Query("SELECT new com.example.sports_booking.dto.AvailableVenueDTO(" +
+           "v.id, v.name, v.location, v.sportId, s.id, s.startTime, s.endTime) " +
+           "FROM Slot s JOIN s.venue v WHERE v.sportId = :sportId AND s.status = :status AND " +
+           "s.startTime >= :startTime AND s.endTime <= :endTime AND " +
+           "(s.startTime > :afterTime OR (s.startTime = :afterTime AND s.id > :afterId)) " +
+           "ORDER BY s.startTime, s.id")
+    List<AvailableVenueDTO> findAvailableVenueSlotsBySport(@Param("sportId") String sportId,
+                                                           @Param("startTime") LocalDateTime startTime,
+                                                           @Param("endTime") LocalDateTime endTime,
+                                                           @Param("status") SlotStatus status,
+                                                           @Param("afterTime") LocalDateTime afterTime,
+                                                           @Param("afterId") Long afterId,
+                                                           Pageable pageable);
+
+    /** Venue ids come from the nearby index, already filtered by sport. */
+    @Query("SELECT new com.example.sports_booking.dto.AvailableVenueDTO(" +
+           "v.id, v.name, v.location, v.sportId, s.id, s.startTime, s.endTime) " +
+           "FROM Slot s JOIN s.venue v WHERE v.id IN :venueIds AND s.status = :status AND " +
+           "s.startTime >= :startTime AND s.endTime <= :endTime AND " +
+           "(s.startTime > :afterTime OR (s.startTime = :afterTime AND s.id > :afterId)) " +
+           "ORDER BY s.startTime, s.id")
+    List<AvailableVenueDTO> findAvailableVenueSlotsByVenues(@Param("venueIds") Collection<Long> venueIds,
+                                                            @Param("startTime") LocalDateTime startTime,
+                                                            @Param("endTime") LocalDateTime endTime,
+                                                            @Param("status") SlotStatus status,
+                                                            @Param("afterTime") LocalDateTime afterTime,
+                                                            @Param("afterId") Long afterId,
+                                                            Pageable pageable);
 }
@@ -0,0 +1,22 @@
+package com.example.sports_booking.repository;
+
+import com.example.sports_booking.entity.SlotStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * A slot's current status together with the venue and sport it belongs to, for change notifications.
+ */
+public interface SlotStatusView {
+    Long getId();
+
+    Long getVenueId();
+
+    String getSportId();
+
+    LocalDateTime getStartTime();
+
+    LocalDateTime getEndTime();
+
+    SlotStatus getStatus();
+}
@@ -0,0 +1,22 @@
+package com.example.sports_booking.repository;
+
+import com.example.sports_booking.entity.SlotStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Slot columns without the venue association, for listings where the venue is already known.
+ */
+public interface SlotSummary {
+    Long getId();
+
+    LocalDateTime getStartTime();
+
+    LocalDateTime getEndTime();
+
+    SlotStatus getStatus();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+}
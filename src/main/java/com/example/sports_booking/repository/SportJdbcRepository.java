@@ -0,0 +1,42 @@
+package com.example.sports_booking.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plain JDBC writes for the sport catalog.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SportJdbcRepository {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO sport (sport_id, sport_name, created_at) VALUES (?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE sport_name = VALUES(sport_name)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:20}")
+    private int batchSize;
+
+    /**
+     * Inserts new sports and renames existing ones, keyed by {@code sport_id}, in JDBC batches.
+     */
+    public void upsert(Map<String, String> namesBySportId) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Map.Entry<String, String>> rows = new ArrayList<>(namesBySportId.entrySet());
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows, batchSize, (ps, row) -> {
+            ps.setString(1, row.getKey());
+            ps.setString(2, row.getValue());
+            ps.setTimestamp(3, now);
+        });
+    }
+}
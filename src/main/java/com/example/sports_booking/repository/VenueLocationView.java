@@ -0,0 +1,14 @@
+package com.example.sports_booking.repository;
+
+/**
+ * A venue's coordinates and sport, for loading the nearby-venue index.
+ */
+public interface VenueLocationView {
+    Long getId();
+
+    String getSportId();
+
+    Double getLatitude();
+
+    Double getLongitude();
+}
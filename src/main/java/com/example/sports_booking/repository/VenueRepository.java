@@ -1,15 +1,27 @@
 package com.example.sports_booking.repository;
 
 import com.example.sports_booking.entity.Venue;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface VenueRepository extends JpaRepository<Venue, Long> {
     List<Venue> findBySportId(String sportId);
 
+    /** Locks the venue row, so writers of the venue's slots queue up before their transaction reads anything. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT v FROM Venue v WHERE v.id = :id")
+    Optional<Venue> lockById(@Param("id") Long id);
+
     @Query("SELECT DISTINCT v FROM Venue v WHERE v.sportId = :sportId")
     List<Venue> findAllBySportId(@Param("sportId") String sportId);
+
+    @Query("SELECT v.id AS id, v.sportId AS sportId, v.latitude AS latitude, v.longitude AS longitude " +
+           "FROM Venue v WHERE v.latitude IS NOT NULL AND v.longitude IS NOT NULL")
+    List<VenueLocationView> findLocated();
 }
@@ -0,0 +1,138 @@
+package com.example.sports_booking.service;
+
+import com.example.sports_booking.config.ShardRouter;
+import com.example.sports_booking.repository.ArchiveJdbcRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps {@code slot} and {@code booking} at a steady size by moving slots that ended more than
+ * {@code archive.retention} ago, with their bookings, into {@code slot_archive} and {@code booking_archive}.
+ * <p>
+ * Slots are moved oldest first in batches of {@code archive.batch-size}, each in its own short transaction that
+ * locks only the rows it moves, with a pause between batches so the archiver never competes with bookings for
+ * long. A run moves at most {@code archive.max-batches} batches per shard and leaves the rest to the next run, so
+ * it never holds the shared scheduler thread for long. Ids are kept, so archived bookings are still found by
+ * {@link BookingService#getBooking}.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "archive.enabled", havingValue = "true", matchIfMissing = true)
+public class ArchiveService {
+
+    private final ArchiveJdbcRepository archiveRepo;
+    private final SlotIntervalIndex intervalIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shards;
+    private final Duration retention;
+    private final int batchSize;
+    private final Duration batchPause;
+    private final int maxBatches;
+    private final Counter archivedSlots;
+    private final Counter archivedBookings;
+
+    public ArchiveService(ArchiveJdbcRepository archiveRepo,
+                          SlotIntervalIndex intervalIndex,
+                          TransactionTemplate transactionTemplate,
+                          ShardRouter shards,
+                          MeterRegistry registry,
+                          @Value("${archive.retention:30d}") Duration retention,
+                          @Value("${archive.batch-size:500}") int batchSize,
+                          @Value("${archive.batch-pause:100ms}") Duration batchPause,
+                          @Value("${archive.max-batches:20}") int maxBatches) {
+        if (batchSize < 1 || maxBatches < 1) {
+            throw new IllegalArgumentException("archive.batch-size and archive.max-batches must be positive");
+        }
+        this.archiveRepo = archiveRepo;
+        this.intervalIndex = intervalIndex;
+        this.transactionTemplate = transactionTemplate;
+        this.shards = shards;
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.batchPause = batchPause;
+        this.maxBatches = maxBatches;
+        this.archivedSlots = Counter.builder("archive.slots")
+                .description("Slots moved to slot_archive")
+                .register(registry);
+        this.archivedBookings = Counter.builder("archive.bookings")
+                .description("Bookings moved to booking_archive")
+                .register(registry);
+    }
+
+    @Scheduled(initialDelayString = "${archive.initial-delay:PT1M}", fixedDelayString = "${archive.interval:PT10M}")
+    public void scheduledArchive() {
+        try {
+            archive();
+        } catch (RuntimeException e) {
+            log.error("Archiving past slots failed", e);
+        }
+    }
+
+    /** Archives up to {@code archive.max-batches} batches of ended slots per shard and returns how many were moved. */
+    public int archive() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        log.info("Archiving slots that ended before {}", cutoff);
+        AtomicInteger total = new AtomicInteger();
+        shards.forEachShard(shard -> total.addAndGet(archiveShard(cutoff)));
+        if (total.get() > 0) {
+            log.info("Archived {} slots", total.get());
+        }
+        return total.get();
+    }
+
+    private int archiveShard(LocalDateTime cutoff) {
+        int moved = 0;
+        for (int batches = 1; ; batches++) {
+            Integer batch = transactionTemplate.execute(status -> archiveBatch(cutoff));
+            moved += batch;
+            if (batch < batchSize || batches == maxBatches || !pause()) {
+                return moved;
+            }
+        }
+    }
+
+    private int archiveBatch(LocalDateTime cutoff) {
+        Map<Long, Long> slots = archiveRepo.lockSlotsEndedBefore(cutoff, batchSize);
+        if (slots.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        int bookings = archiveRepo.archiveBookings(slots.keySet(), now);
+        int moved = archiveRepo.archiveSlots(slots.keySet(), now);
+        // The overlap index reloads these venues from what is left in the slot table
+        new HashSet<>(slots.values()).forEach(intervalIndex::evictAfterCommit);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                archivedSlots.increment(moved);
+                archivedBookings.increment(bookings);
+            }
+        });
+        log.debug("Archived {} slots and {} bookings", moved, bookings);
+        return moved;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(batchPause.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
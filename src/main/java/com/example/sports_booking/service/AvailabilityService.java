@@ -1,18 +1,41 @@
 package com.example.sports_booking.service;
 
+import com.example.sports_booking.config.ShardRouter;
 import com.example.sports_booking.dto.AvailableVenueDTO;
-import com.example.sports_booking.entity.Slot;
+import com.example.sports_booking.dto.FreeWindowDTO;
+import com.example.sports_booking.dto.GeoRadius;
+import com.example.sports_booking.dto.KeysetCursor;
+import com.example.sports_booking.dto.KeysetPage;
 import com.example.sports_booking.entity.SlotStatus;
 import com.example.sports_booking.entity.Venue;
+import com.example.sports_booking.repository.SlotJdbcRepository;
 import com.example.sports_booking.repository.SlotRepository;
 import com.example.sports_booking.repository.VenueRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -20,41 +43,232 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class AvailabilityService {
 
+    public static final int DEFAULT_LIMIT = 500;
+    public static final int MAX_LIMIT = 2000;
+    public static final int MAX_WINDOW_DAYS = 366;
+    private static final int STREAM_BUFFER_BYTES = 8192;
+    private static final Comparator<AvailableVenueDTO> SLOT_ORDER =
+            Comparator.comparing(AvailableVenueDTO::getSlotStartTime).thenComparing(AvailableVenueDTO::getSlotId);
+
     private final SlotRepository slotRepository;
+    private final SlotJdbcRepository slotJdbcRepository;
     private final VenueRepository venueRepository;
+    private final SlotAvailabilityIndex availabilityIndex;
+    private final VenueGeoIndex geoIndex;
+    private final ObjectMapper objectMapper;
+    private final HotPathMetrics metrics;
+    private final ShardRouter shards;
 
+    /**
+     * Returns one page of available slots joined with their venue, ordered by slot start time and id.
+     * The whole page is answered by a single query per shard regardless of how many venues match. With
+     * {@code near}, only the venues the nearby index finds in that circle are queried.
+     */
     @Transactional(readOnly = true)
-    public List<AvailableVenueDTO> findAvailableVenues(String sportId, LocalDateTime startTime, LocalDateTime endTime) {
-        log.info("Finding available venues - sportId: {}, startTime: {}, endTime: {}", sportId, startTime, endTime);
+    public KeysetPage<AvailableVenueDTO> findAvailableVenues(String sportId, LocalDateTime startTime, LocalDateTime endTime,
+                                                             GeoRadius near, String cursor, int limit) {
+        log.info("Finding available venues - sportId: {}, startTime: {}, endTime: {}, near: {}, cursor: {}, limit: {}",
+                sportId, startTime, endTime, near, cursor, limit);
+
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        int pageSize = Math.min(limit, MAX_LIMIT);
 
-        List<Venue> venues;
-        if (sportId != null && !sportId.isEmpty()) {
-            venues = venueRepository.findBySportId(sportId);
+        // Without a cursor, (startTime, 0) sorts before every slot in the window
+        KeysetCursor after = cursor != null ? KeysetCursor.decode(cursor) : new KeysetCursor(startTime, 0L);
+        Pageable fetch = PageRequest.ofSize(pageSize + 1);
+        Collection<Long> nearby = nearbyVenueIds(near, sportId);
+
+        Timer.Sample query = metrics.startSample();
+        List<AvailableVenueDTO> rows;
+        if (nearby != null) {
+            rows = shards.gatherMerged(nearby, SLOT_ORDER, pageSize + 1, (shard, venueIds) ->
+                    slotRepository.findAvailableVenueSlotsByVenues(venueIds, startTime, endTime,
+                            SlotStatus.AVAILABLE, after.getTime(), after.getId(), fetch));
+        } else if (sportId != null && !sportId.isEmpty()) {
+            rows = shards.gatherMerged(SLOT_ORDER, pageSize + 1, shard ->
+                    slotRepository.findAvailableVenueSlotsBySport(sportId, startTime, endTime,
+                            SlotStatus.AVAILABLE, after.getTime(), after.getId(), fetch));
         } else {
-            venues = venueRepository.findAll();
-        }
-
-        return venues.stream()
-                .flatMap(venue -> {
-                    // Find available slots for this venue within the time range
-                    List<Slot> availableSlots = slotRepository.findAvailableSlots(
-                            venue.getId(),
-                            startTime,
-                            endTime,
-                            SlotStatus.AVAILABLE
-                    );
-
-                    return availableSlots.stream()
-                            .map(slot -> AvailableVenueDTO.builder()
-                                    .venueId(venue.getId())
-                                    .venueName(venue.getName())
-                                    .location(venue.getLocation())
-                                    .sportId(venue.getSportId())
-                                    .slotId(slot.getId())
-                                    .slotStartTime(slot.getStartTime())
-                                    .slotEndTime(slot.getEndTime())
-                                    .build());
-                })
-                .collect(Collectors.toList());
+            rows = shards.gatherMerged(SLOT_ORDER, pageSize + 1, shard ->
+                    slotRepository.findAvailableVenueSlots(startTime, endTime,
+                            SlotStatus.AVAILABLE, after.getTime(), after.getId(), fetch));
+        }
+        query.stop(metrics.availabilityQuery(false, sportId));
+        metrics.availabilityResults(false, sportId).record(Math.min(rows.size(), pageSize));
+
+        if (rows.size() <= pageSize) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<AvailableVenueDTO> page = rows.subList(0, pageSize);
+        AvailableVenueDTO last = page.get(pageSize - 1);
+        return new KeysetPage<>(page, new KeysetCursor(last.getSlotStartTime(), last.getSlotId()).encode());
+    }
+
+    /**
+     * Returns one page of venues free for the whole {@code [fromTime, toTime)} window on any (or every) day from
+     * {@code fromDate} to {@code toDate}, in venue id order. Answered from {@link SlotAvailabilityIndex}; until
+     * the index is loaded, or for days outside its horizon, the available slots in the date range are scanned.
+     * With {@code near}, only venues in that circle are considered. Pages are keyed by venue id alone; the
+     * cursor's time is the start of the searched window and only ties the cursor to the search it came from.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<FreeWindowDTO> findFreeWindows(String sportId, LocalDate fromDate, LocalDate toDate,
+                                                     LocalTime fromTime, LocalTime toTime, DayMatch match,
+                                                     GeoRadius near, String cursor, int limit) {
+        log.info("Finding free windows - sportId: {}, dates: {} to {}, window: {} to {}, match: {}, near: {}, cursor: {}, limit: {}",
+                sportId, fromDate, toDate, fromTime, toTime, match, near, cursor, limit);
+
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        if (toDate.isBefore(fromDate) || ChronoUnit.DAYS.between(fromDate, toDate) >= MAX_WINDOW_DAYS) {
+            throw new IllegalArgumentException("toDate must be on or after fromDate and within " + MAX_WINDOW_DAYS + " days of it");
+        }
+        if (!toTime.isAfter(fromTime)) {
+            throw new IllegalArgumentException("toTime must be after fromTime");
+        }
+        int pageSize = Math.min(limit, MAX_LIMIT);
+        long afterVenueId = 0L;
+        if (cursor != null) {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            if (!after.getTime().equals(fromDate.atTime(fromTime))) {
+                throw new IllegalArgumentException("cursor belongs to a search with another fromDate or fromTime");
+            }
+            afterVenueId = after.getId();
+        }
+        Collection<Long> nearby = nearbyVenueIds(near, sportId);
+
+        Timer.Sample query = metrics.startSample();
+        Map<Long, List<LocalDate>> free = availabilityIndex.findFree(sportId, nearby, fromDate, toDate, fromTime, toTime,
+                match, afterVenueId, pageSize + 1);
+        boolean indexed = free != null;
+        if (!indexed) {
+            free = scanFreeWindows(sportId, nearby, fromDate, toDate, fromTime, toTime, match, afterVenueId, pageSize + 1);
+        }
+        query.stop(metrics.freeWindowQuery(indexed, sportId));
+        metrics.freeWindowResults(indexed, sportId).record(Math.min(free.size(), pageSize));
+
+        List<Long> venueIds = new ArrayList<>(free.keySet());
+        String next = null;
+        if (venueIds.size() > pageSize) {
+            venueIds = venueIds.subList(0, pageSize);
+            next = new KeysetCursor(fromDate.atTime(fromTime), venueIds.get(pageSize - 1)).encode();
+        }
+        Map<Long, Venue> venues = shards.gather(venueIds, (shard, ids) -> venueRepository.findAllById(ids)).stream()
+                .collect(Collectors.toMap(Venue::getId, venue -> venue));
+        List<FreeWindowDTO> page = new ArrayList<>(venueIds.size());
+        for (Long venueId : venueIds) {
+            // Skips venues deleted since the index or scan saw them
+            Venue venue = venues.get(venueId);
+            if (venue != null) {
+                page.add(FreeWindowDTO.builder()
+                        .venueId(venueId)
+                        .venueName(venue.getName())
+                        .location(venue.getLocation())
+                        .sportId(venue.getSportId())
+                        .dates(free.get(venueId))
+                        .build());
+            }
+        }
+        return new KeysetPage<>(page, next);
+    }
+
+    /**
+     * Writes every available slot in the window to {@code out} as newline-delimited JSON while the rows are
+     * being read. At most {@value #STREAM_BUFFER_BYTES} bytes are buffered; the first row is flushed right away.
+     * Shards are read in parallel and their rows merged in slot start time order.
+     */
+    public void streamAvailableVenues(String sportId, LocalDateTime startTime, LocalDateTime endTime,
+                                      GeoRadius near, OutputStream out) throws IOException {
+        log.info("Streaming available venues - sportId: {}, startTime: {}, endTime: {}, near: {}",
+                sportId, startTime, endTime, near);
+        Map<Integer, List<Long>> nearby = nearbyByShard(near, sportId);
+
+        BufferedOutputStream buffer = new BufferedOutputStream(out, STREAM_BUFFER_BYTES);
+        SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(buffer);
+        long[] rows = {0};
+        Timer.Sample query = metrics.startSample();
+        try {
+            shards.streamMerged(SLOT_ORDER, (shard, shardRows) -> slotJdbcRepository.streamAvailableVenueSlots(
+                    sportId, venuesOn(nearby, shard), startTime, endTime, shardRows), row -> {
+                try {
+                    writer.write(row);
+                    if (rows[0]++ == 0) {
+                        writer.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+            buffer.write('\n');
+            buffer.flush();
+        } catch (UncheckedIOException e) {
+            log.warn("Available venue stream aborted after {} rows: {}", rows[0], e.getCause().getMessage());
+            throw e.getCause();
+        } finally {
+            query.stop(metrics.availabilityQuery(true, sportId));
+            metrics.availabilityResults(true, sportId).record(rows[0]);
+        }
+        log.info("Streamed {} available slots", rows[0]);
+    }
+
+    /**
+     * Reads the available slots of the date range in start time order and follows each venue-day's window
+     * from its start for as long as back-to-back slots keep covering it.
+     */
+    private Map<Long, List<LocalDate>> scanFreeWindows(String sportId, Collection<Long> venueIds,
+                                                       LocalDate fromDate, LocalDate toDate,
+                                                       LocalTime fromTime, LocalTime toTime, DayMatch match,
+                                                       long afterVenueId, int limit) {
+        // Venue id to the furthest point each day's window is covered from its start
+        Map<Long, TreeMap<LocalDate, LocalDateTime>> covered = new TreeMap<>();
+        Map<Integer, List<Long>> venuesByShard = venueIds != null ? shards.byShard(venueIds) : null;
+        shards.streamMerged(SLOT_ORDER, (shard, shardRows) -> slotJdbcRepository.streamAvailableVenueSlots(sportId,
+                venuesOn(venuesByShard, shard), fromDate.atStartOfDay(), toDate.plusDays(1).atStartOfDay(), shardRows), row -> {
+            if (row.getVenueId() <= afterVenueId) {
+                return;
+            }
+            TreeMap<LocalDate, LocalDateTime> days = covered.computeIfAbsent(row.getVenueId(), id -> new TreeMap<>());
+            for (LocalDate day = row.getSlotStartTime().toLocalDate(); !day.isAfter(row.getSlotEndTime().toLocalDate()); day = day.plusDays(1)) {
+                LocalDateTime reach = days.getOrDefault(day, day.atTime(fromTime));
+                if (!row.getSlotStartTime().isAfter(reach) && row.getSlotEndTime().isAfter(reach)) {
+                    days.put(day, row.getSlotEndTime());
+                }
+            }
+        });
+
+        long dayCount = ChronoUnit.DAYS.between(fromDate, toDate) + 1;
+        Map<Long, List<LocalDate>> free = new LinkedHashMap<>();
+        for (Map.Entry<Long, TreeMap<LocalDate, LocalDateTime>> venue : covered.entrySet()) {
+            List<LocalDate> days = venue.getValue().entrySet().stream()
+                    .filter(day -> !day.getValue().isBefore(day.getKey().atTime(toTime)))
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+            if (!days.isEmpty() && (match == DayMatch.ANY || days.size() == dayCount)) {
+                free.put(venue.getKey(), days);
+                if (free.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return free;
+    }
+
+    /** Ids of the venues of the sport inside {@code near}, or {@code null} when the search is not restricted to an area. */
+    private Collection<Long> nearbyVenueIds(GeoRadius near, String sportId) {
+        return near != null ? geoIndex.findWithin(near, sportId, Integer.MAX_VALUE).keySet() : null;
+    }
+
+    private Map<Integer, List<Long>> nearbyByShard(GeoRadius near, String sportId) {
+        Collection<Long> nearby = nearbyVenueIds(near, sportId);
+        return nearby != null ? shards.byShard(nearby) : null;
+    }
+
+    /** The shard's share of {@code byShard}, or {@code null} (every venue) when the query is not restricted to venues. */
+    private static Collection<Long> venuesOn(Map<Integer, List<Long>> byShard, int shard) {
+        return byShard != null ? byShard.getOrDefault(shard, List.of()) : null;
     }
 }
@@ -0,0 +1,184 @@
+package com.example.sports_booking.service;
+
+import com.example.sports_booking.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission control for the booking and hold endpoints, checked before a request opens a transaction, so a
+ * rejected request never takes a JDBC connection or waits on a slot row lock.
+ * <p>
+ * Three checks, all on atomic counters:
+ * <ul>
+ *   <li>A token bucket per user name, refilled at {@code booking.admission.user-rate} per second up to
+ *       {@code user-burst} tokens. It is kept as the time the bucket will next be full (the GCRA form of a
+ *       token bucket), so taking a token is one compare-and-set on a {@code long}.</li>
+ *   <li>At most {@code slot-max-in-flight} requests per slot. Only one of them can win the slot, so the rest
+ *       would only queue on its row lock.</li>
+ *   <li>At most {@code max-in-flight} booking requests in all, a small multiple of the connection pool.</li>
+ * </ul>
+ * A rejected request gets {@code 429 Too Many Requests} with {@code Retry-After} at once; nothing waits here.
+ */
+@Slf4j
+@Component
+public class BookingAdmission {
+
+    /** In-flight booking requests per pooled JDBC connection when no explicit limit is configured. */
+    static final int REQUESTS_PER_CONNECTION = 2;
+
+    private final boolean enabled;
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final int slotMaxInFlight;
+    private final int maxInFlight;
+    private final ConcurrentMap<String, AtomicLong> userBuckets = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, AtomicInteger> slotsInFlight = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter userRateRejections;
+    private final Counter slotBusyRejections;
+    private final Counter overloadRejections;
+
+    public BookingAdmission(@Value("${booking.admission.enabled:true}") boolean enabled,
+                            @Value("${booking.admission.user-rate:2}") double userRate,
+                            @Value("${booking.admission.user-burst:5}") int userBurst,
+                            @Value("${booking.admission.slot-max-in-flight:2}") int slotMaxInFlight,
+                            @Value("${booking.admission.max-in-flight:0}") int maxInFlight,
+                            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                            MeterRegistry registry) {
+        if (userRate <= 0 || userBurst < 1 || slotMaxInFlight < 1) {
+            throw new IllegalArgumentException("booking.admission user-rate, user-burst and slot-max-in-flight must be positive");
+        }
+        this.enabled = enabled;
+        this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / userRate);
+        this.burstToleranceNanos = emissionIntervalNanos * (userBurst - 1);
+        this.slotMaxInFlight = slotMaxInFlight;
+        this.maxInFlight = maxInFlight > 0 ? maxInFlight : REQUESTS_PER_CONNECTION * poolSize;
+        this.userRateRejections = rejections(registry, "user_rate");
+        this.slotBusyRejections = rejections(registry, "slot_busy");
+        this.overloadRejections = rejections(registry, "overloaded");
+        Gauge.builder("booking.admission.in_flight", inFlight, AtomicInteger::get)
+                .description("Booking and hold requests currently admitted")
+                .register(registry);
+    }
+
+    /**
+     * Admits a request by {@code userName} for {@code slotIds}, or throws {@link TooManyRequestsException}.
+     * The returned permit must be closed when the request completes.
+     */
+    public Permit admit(String userName, Collection<Long> slotIds) {
+        if (!enabled) {
+            return Permit.NONE;
+        }
+        if (inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            overloadRejections.increment();
+            throw new TooManyRequestsException("Booking service is busy, retry shortly", 1);
+        }
+        List<AtomicInteger> claimed = new ArrayList<>(slotIds.size());
+        try {
+            for (Long slotId : slotIds) {
+                AtomicInteger counter = claimSlot(slotId);
+                if (counter == null) {
+                    slotBusyRejections.increment();
+                    throw new TooManyRequestsException("Slot " + slotId + " is being booked by other requests", 1);
+                }
+                claimed.add(counter);
+            }
+            takeToken(userName);
+        } catch (RuntimeException e) {
+            release(slotIds, claimed);
+            throw e;
+        }
+        return () -> release(slotIds, claimed);
+    }
+
+    /** Drops buckets that have refilled completely; they are recreated full on the user's next request. */
+    @Scheduled(fixedDelayString = "${booking.admission.cleanup-interval:PT1M}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        userBuckets.entrySet().removeIf(bucket -> bucket.getValue().get() - now <= 0);
+    }
+
+    private void takeToken(String userName) {
+        AtomicLong fullAt = userBuckets.computeIfAbsent(userName, user -> new AtomicLong(System.nanoTime()));
+        while (true) {
+            long now = System.nanoTime();
+            long current = fullAt.get();
+            long start = Math.max(current, now);
+            long wait = start - now - burstToleranceNanos;
+            if (wait > 0) {
+                userRateRejections.increment();
+                throw new TooManyRequestsException("Too many booking requests for user " + userName,
+                        Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1)));
+            }
+            if (fullAt.compareAndSet(current, start + emissionIntervalNanos)) {
+                return;
+            }
+        }
+    }
+
+    /** Returns the slot's counter after counting this request in, or null if the slot is at its cap. */
+    private AtomicInteger claimSlot(Long slotId) {
+        while (true) {
+            AtomicInteger counter = slotsInFlight.computeIfAbsent(slotId, id -> new AtomicInteger());
+            int current = counter.get();
+            if (current < 0) {
+                // Retired by the last request to leave; install a fresh counter
+                slotsInFlight.remove(slotId, counter);
+                continue;
+            }
+            if (current >= slotMaxInFlight) {
+                return null;
+            }
+            if (counter.compareAndSet(current, current + 1)) {
+                return counter;
+            }
+        }
+    }
+
+    private void release(Collection<Long> slotIds, List<AtomicInteger> claimed) {
+        int i = 0;
+        for (Long slotId : slotIds) {
+            if (i == claimed.size()) {
+                break;
+            }
+            AtomicInteger counter = claimed.get(i++);
+            // The last request out retires the counter so idle slots do not stay in the map
+            if (counter.decrementAndGet() == 0 && counter.compareAndSet(0, -1)) {
+                slotsInFlight.remove(slotId, counter);
+            }
+        }
+        inFlight.decrementAndGet();
+    }
+
+    private static Counter rejections(MeterRegistry registry, String reason) {
+        return Counter.builder("booking.admission.rejected")
+                .description("Booking and hold requests rejected with 429 before reaching the database")
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    /** Held while an admitted request runs. */
+    public interface Permit extends AutoCloseable {
+
+        /** For requests that are not subject to admission control. */
+        Permit NONE = () -> { };
+
+        @Override
+        void close();
+    }
+}
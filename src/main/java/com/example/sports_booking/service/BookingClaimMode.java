@@ -0,0 +1,12 @@
+package com.example.sports_booking.service;
+
+/**
+ * How {@link BookingService} claims a slot, selected with {@code booking.claim-mode}.
+ */
+public enum BookingClaimMode {
+    /** Lock the slot row with {@code SELECT ... FOR UPDATE}, then check and update its status. */
+    PESSIMISTIC,
+
+    /** Flip the status with a single guarded {@code UPDATE}; the affected row count decides the winner. */
+    CONDITIONAL
+}
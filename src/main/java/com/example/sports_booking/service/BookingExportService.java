@@ -0,0 +1,114 @@
+package com.example.sports_booking.service;
+
+import com.example.sports_booking.config.ShardRouter;
+import com.example.sports_booking.dto.BookingDTO;
+import com.example.sports_booking.dto.BookingFilter;
+import com.example.sports_booking.repository.BookingJdbcRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.function.Consumer;
+
+/**
+ * Writes bookings row by row as they are read, for reconciliation jobs that need every booking.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookingExportService {
+
+    private static final String CSV_HEADER =
+            "id,slotId,venueId,venueName,userName,slotStartTime,slotEndTime,status,createdAt,cancelledAt";
+    private static final DateTimeFormatter CSV_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final Comparator<BookingDTO> CREATED_ORDER =
+            Comparator.comparing(BookingDTO::getCreatedAt).thenComparing(BookingDTO::getId);
+
+    private final BookingJdbcRepository bookingJdbcRepo;
+    private final ObjectMapper objectMapper;
+    private final ShardRouter shards;
+
+    public void export(BookingFilter filter, ExportFormat format, OutputStream out) throws IOException {
+        log.info("Exporting bookings - filter: {}, format: {}", filter, format);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        long[] rows = {0};
+        try {
+            if (format == ExportFormat.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+                stream(filter, booking -> {
+                    writeUnchecked(writer, toCsv(booking));
+                    rows[0]++;
+                });
+            } else {
+                SequenceWriter sequence = objectMapper.writer().withRootValueSeparator("\n").writeValues(writer);
+                stream(filter, booking -> {
+                    try {
+                        sequence.write(booking);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    rows[0]++;
+                });
+                sequence.flush();
+                writer.write('\n');
+            }
+            writer.flush();
+        } catch (UncheckedIOException e) {
+            // The client went away; the repository has already cancelled the query and closed the cursor
+            log.warn("Booking export aborted after {} rows: {}", rows[0], e.getCause().getMessage());
+            throw e.getCause();
+        }
+        log.info("Exported {} bookings", rows[0]);
+    }
+
+    /** Every matching booking in creation order, merged from all shards. */
+    private void stream(BookingFilter filter, Consumer<BookingDTO> consumer) {
+        shards.streamMerged(CREATED_ORDER, (shard, rows) -> bookingJdbcRepo.stream(filter, rows), consumer);
+    }
+
+    private static String toCsv(BookingDTO booking) {
+        return String.join(",",
+                String.valueOf(booking.getId()),
+                String.valueOf(booking.getSlotId()),
+                String.valueOf(booking.getVenueId()),
+                csvText(booking.getVenueName()),
+                csvText(booking.getUserName()),
+                csvTime(booking.getSlotStartTime()),
+                csvTime(booking.getSlotEndTime()),
+                booking.getStatus(),
+                csvTime(booking.getCreatedAt()),
+                csvTime(booking.getCancelledAt())) + "\n";
+    }
+
+    private static String csvText(String value) {
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    private static String csvTime(LocalDateTime value) {
+        return value != null ? CSV_TIME.format(value) : "";
+    }
+
+    private static void writeUnchecked(Writer writer, String text) {
+        try {
+            writer.write(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,22 +1,35 @@
 package com.example.sports_booking.service;
 
+import com.example.sports_booking.config.ShardRouter;
 import com.example.sports_booking.dto.BookingDTO;
+import com.example.sports_booking.dto.BookingFilter;
+import com.example.sports_booking.dto.CreateBatchBookingRequest;
 import com.example.sports_booking.dto.CreateBookingRequest;
+import com.example.sports_booking.dto.HoldTokenRequest;
+import com.example.sports_booking.dto.KeysetCursor;
+import com.example.sports_booking.dto.KeysetPage;
 import com.example.sports_booking.entity.Booking;
 import com.example.sports_booking.entity.BookingStatus;
+import com.example.sports_booking.entity.OutboxEventType;
 import com.example.sports_booking.entity.Slot;
 import com.example.sports_booking.entity.SlotStatus;
 import com.example.sports_booking.exception.BookingException;
 import com.example.sports_booking.exception.ResourceNotFoundException;
+import com.example.sports_booking.exception.SlotUnavailableException;
+import com.example.sports_booking.repository.BookingJdbcRepository;
 import com.example.sports_booking.repository.BookingRepository;
 import com.example.sports_booking.repository.SlotRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -24,71 +37,282 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class BookingService {
 
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 1000;
+    private static final Comparator<BookingDTO> CREATED_ORDER =
+            Comparator.comparing(BookingDTO::getCreatedAt).thenComparing(BookingDTO::getId);
+
     private final SlotRepository slotRepo;
     private final BookingRepository bookingRepo;
+    private final BookingJdbcRepository bookingJdbcRepo;
+    private final HotPathMetrics metrics;
+    private final SlotEventHub slotEvents;
+    private final ShardRouter shards;
+    private final OutboxService outbox;
+
+    @Value("${booking.claim-mode:PESSIMISTIC}")
+    private BookingClaimMode claimMode;
 
     @Transactional
     public BookingDTO book(CreateBookingRequest request) {
         log.info("Booking slot: {} for user: {}", request.getSlotId(), request.getUserName());
+        shards.selectShardOf(request.getSlotId());
+        HotPathMetrics.OperationTimer timer = metrics.start(HotPathMetrics.Operation.BOOK);
 
-        Slot slot = slotRepo.lockById(request.getSlotId());
+        try {
+            Slot slot = claimMode == BookingClaimMode.CONDITIONAL
+                    ? claimConditionally(request.getSlotId())
+                    : claimWithLock(request.getSlotId());
 
-        if (slot == null) {
-            throw new ResourceNotFoundException("Slot not found with id: " + request.getSlotId());
-        }
+            Booking booking = Booking.builder()
+                    .slot(slot)
+                    .userName(request.getUserName())
+                    .status(BookingStatus.CONFIRMED)
+                    .build();
 
-        if (slot.getStatus() == SlotStatus.BOOKED) {
-            log.warn("Double booking attempt for slot: {}", request.getSlotId());
-            throw new BookingException("Slot is already booked");
+            Booking saved = bookingRepo.save(booking);
+            shards.checkGenerated(saved.getId());
+            BookingDTO confirmed = toDTO(saved);
+            outbox.recordBookings(OutboxEventType.BOOKING_CONFIRMED, List.of(confirmed));
+            slotEvents.publishAfterCommit(List.of(slot.getId()));
+            log.info("Booking confirmed with id: {}", saved.getId());
+            timer.succeeded();
+            return confirmed;
+        } catch (RuntimeException e) {
+            throw timer.failed(e);
         }
+    }
 
-        slot.setStatus(SlotStatus.BOOKED);
-        slotRepo.save(slot);
+    /**
+     * Turns an unexpired hold placed by {@link SlotHoldService#hold} into a confirmed booking for the holder.
+     */
+    @Transactional
+    public BookingDTO confirmHold(Long slotId, HoldTokenRequest request) {
+        log.info("Confirming hold on slot: {}", slotId);
+        shards.selectShardOf(slotId);
+        HotPathMetrics.OperationTimer timer = metrics.start(HotPathMetrics.Operation.CONFIRM_HOLD);
 
-        Booking booking = Booking.builder()
-                .slot(slot)
-                .userName(request.getUserName())
-                .status(BookingStatus.CONFIRMED)
-                .build();
+        try {
+            Slot slot = slotRepo.findHeld(slotId, request.getHoldToken(), SlotStatus.HELD)
+                    .orElseThrow(() -> slotRepo.existsById(slotId)
+                            ? new SlotUnavailableException("No active hold on slot " + slotId + " for this token")
+                            : new ResourceNotFoundException("Slot not found with id: " + slotId));
 
-        Booking saved = bookingRepo.save(booking);
-        log.info("Booking confirmed with id: {}", saved.getId());
-        return toDTO(saved);
+            int converted = slotRepo.convertHold(slotId, request.getHoldToken(), LocalDateTime.now(),
+                    SlotStatus.HELD, SlotStatus.BOOKED);
+            if (converted == 0) {
+                log.warn("Hold on slot {} expired before confirmation", slotId);
+                throw new SlotUnavailableException("Hold on slot " + slotId + " has expired");
+            }
+
+            Booking saved = bookingRepo.save(Booking.builder()
+                    .slot(slot)
+                    .userName(slot.getHoldUserName())
+                    .status(BookingStatus.CONFIRMED)
+                    .build());
+            shards.checkGenerated(saved.getId());
+            BookingDTO confirmed = toDTO(saved);
+            outbox.recordBookings(OutboxEventType.BOOKING_CONFIRMED, List.of(confirmed));
+            slotEvents.publishAfterCommit(List.of(slotId));
+            log.info("Hold on slot {} confirmed as booking: {}", slotId, saved.getId());
+            timer.succeeded();
+            return confirmed;
+        } catch (RuntimeException e) {
+            throw timer.failed(e);
+        }
     }
 
-    @Transactional(readOnly = true)
-    public List<BookingDTO> listBookings() {
-        log.info("Fetching all bookings");
-        return bookingRepo.findAll().stream()
-                .map(this::toDTO)
+    /**
+     * Books several slots for one user atomically: either every slot is booked or none is.
+     * Slots are claimed in ascending id order so concurrent carts cannot deadlock each other.
+     */
+    @Transactional
+    public List<BookingDTO> bookAll(CreateBatchBookingRequest request) {
+        List<Long> slotIds = request.getSlotIds().stream()
+                .distinct()
+                .sorted()
                 .collect(Collectors.toList());
+        log.info("Booking slots: {} for user: {}", slotIds, request.getUserName());
+        shards.selectShardOf(slotIds);
+
+        List<Slot> slots = claimMode == BookingClaimMode.CONDITIONAL
+                ? claimAllConditionally(slotIds)
+                : claimAllWithLock(slotIds);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> bookingIds = bookingJdbcRepo.batchInsert(slotIds, request.getUserName(), BookingStatus.CONFIRMED, now);
+        shards.checkGenerated(bookingIds.get(0));
+        slotEvents.publishAfterCommit(slotIds);
+        log.info("Bookings confirmed with ids: {}", bookingIds);
+
+        List<BookingDTO> bookings = new ArrayList<>(slots.size());
+        for (int i = 0; i < slots.size(); i++) {
+            Slot slot = slots.get(i);
+            bookings.add(BookingDTO.builder()
+                    .id(bookingIds.get(i))
+                    .slotId(slot.getId())
+                    .venueId(slot.getVenue().getId())
+                    .venueName(slot.getVenue().getName())
+                    .userName(request.getUserName())
+                    .slotStartTime(slot.getStartTime())
+                    .slotEndTime(slot.getEndTime())
+                    .status(BookingStatus.CONFIRMED.toString())
+                    .createdAt(now)
+                    .build());
+        }
+        outbox.recordBookings(OutboxEventType.BOOKING_CONFIRMED, bookings);
+        return bookings;
     }
 
+    /**
+     * Returns one page of bookings ordered by creation time and id, assembled in a single joined query per shard.
+     */
     @Transactional(readOnly = true)
+    public KeysetPage<BookingDTO> listBookings(BookingFilter filter, String cursor, int limit) {
+        log.info("Fetching bookings - filter: {}, cursor: {}, limit: {}", filter, cursor, limit);
+
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        int pageSize = Math.min(limit, MAX_LIMIT);
+        KeysetCursor after = cursor != null ? KeysetCursor.decode(cursor) : null;
+
+        List<BookingDTO> rows = shards.gatherMerged(CREATED_ORDER, pageSize + 1,
+                shard -> bookingJdbcRepo.findPage(filter, after, pageSize + 1));
+        if (rows.size() <= pageSize) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<BookingDTO> page = rows.subList(0, pageSize);
+        BookingDTO last = page.get(pageSize - 1);
+        return new KeysetPage<>(page, new KeysetCursor(last.getCreatedAt(), last.getId()).encode());
+    }
+
+    // Read-write so it runs on the primary: a booking is usually fetched right after it is created
+    @Transactional
     public BookingDTO getBooking(Long bookingId) {
         log.info("Fetching booking with id: {}", bookingId);
-        Booking booking = bookingRepo.findById(bookingId)
+        shards.selectShardOf(bookingId);
+        return bookingJdbcRepo.findById(bookingId)
+                .or(() -> bookingJdbcRepo.findArchivedById(bookingId))
                 .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id: " + bookingId));
-        return toDTO(booking);
     }
 
     @Transactional
     public void cancel(Long bookingId) {
         log.info("Cancelling booking: {}", bookingId);
-        Booking booking = bookingRepo.findById(bookingId)
-                .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id: " + bookingId));
+        shards.selectShardOf(bookingId);
+        HotPathMetrics.OperationTimer timer = metrics.start(HotPathMetrics.Operation.CANCEL);
+
+        try {
+            // Locked so two concurrent cancels cannot both pass the status check and reopen a slot rebooked in between
+            Booking booking = bookingRepo.lockById(bookingId);
+
+            if (booking == null) {
+                throw new ResourceNotFoundException("Booking not found with id: " + bookingId);
+            }
+
+            if (booking.getStatus() == BookingStatus.CANCELLED) {
+                throw new BookingException("Booking is already cancelled");
+            }
+
+            booking.setStatus(BookingStatus.CANCELLED);
+            booking.setCancelledAt(LocalDateTime.now());
+            booking.getSlot().setStatus(SlotStatus.AVAILABLE);
 
-        if (booking.getStatus() == BookingStatus.CANCELLED) {
-            throw new BookingException("Booking is already cancelled");
+            bookingRepo.save(booking);
+            slotRepo.save(booking.getSlot());
+            // Built from ids only; toDTO would load the venue just for its name
+            outbox.recordBookings(OutboxEventType.BOOKING_CANCELLED, List.of(BookingDTO.builder()
+                    .id(booking.getId())
+                    .slotId(booking.getSlot().getId())
+                    .venueId(booking.getSlot().getVenue().getId())
+                    .userName(booking.getUserName())
+                    .build()));
+            slotEvents.publishAfterCommit(List.of(booking.getSlot().getId()));
+            log.info("Booking cancelled: {}", bookingId);
+            timer.succeeded();
+        } catch (RuntimeException e) {
+            throw timer.failed(e);
+        }
+    }
+
+    private Slot claimWithLock(Long slotId) {
+        Slot slot = metrics.slotClaim(BookingClaimMode.PESSIMISTIC, false).record(() -> slotRepo.lockById(slotId));
+
+        if (slot == null) {
+            throw new ResourceNotFoundException("Slot not found with id: " + slotId);
         }
 
-        booking.setStatus(BookingStatus.CANCELLED);
-        booking.setCancelledAt(LocalDateTime.now());
-        booking.getSlot().setStatus(SlotStatus.AVAILABLE);
+        if (slot.getStatus() == SlotStatus.BOOKED) {
+            log.warn("Double booking attempt for slot: {}", slotId);
+            throw new BookingException("Slot is already booked");
+        }
 
-        bookingRepo.save(booking);
-        slotRepo.save(booking.getSlot());
-        log.info("Booking cancelled: {}", bookingId);
+        if (slot.getStatus() == SlotStatus.HELD) {
+            log.warn("Booking attempt for held slot: {}", slotId);
+            throw new BookingException("Slot is on hold");
+        }
+
+        slot.setStatus(SlotStatus.BOOKED);
+        return slotRepo.save(slot);
+    }
+
+    private Slot claimConditionally(Long slotId) {
+        int claimed = metrics.slotClaim(BookingClaimMode.CONDITIONAL, false).record(() ->
+                slotRepo.transitionStatus(slotId, SlotStatus.AVAILABLE, SlotStatus.BOOKED, LocalDateTime.now()));
+
+        if (claimed == 0) {
+            if (!slotRepo.existsById(slotId)) {
+                throw new ResourceNotFoundException("Slot not found with id: " + slotId);
+            }
+            log.warn("Lost booking race for slot: {}", slotId);
+            throw new SlotUnavailableException("Slot is already booked");
+        }
+
+        // The claim bypassed the persistence context, so load the updated row together with its venue
+        return slotRepo.findWithVenueById(slotId)
+                .orElseThrow(() -> new ResourceNotFoundException("Slot not found with id: " + slotId));
+    }
+
+    private List<Slot> claimAllWithLock(List<Long> slotIds) {
+        List<Slot> slots = metrics.slotClaim(BookingClaimMode.PESSIMISTIC, true).record(() -> slotRepo.lockAllById(slotIds));
+        requireAllFound(slotIds, slots);
+
+        List<Long> booked = slots.stream()
+                .filter(slot -> slot.getStatus() != SlotStatus.AVAILABLE)
+                .map(Slot::getId)
+                .collect(Collectors.toList());
+        if (!booked.isEmpty()) {
+            log.warn("Double booking attempt for slots: {}", booked);
+            throw new BookingException("Slots are already booked or on hold: " + booked);
+        }
+
+        slots.forEach(slot -> slot.setStatus(SlotStatus.BOOKED));
+        return slots;
+    }
+
+    private List<Slot> claimAllConditionally(List<Long> slotIds) {
+        int claimed = metrics.slotClaim(BookingClaimMode.CONDITIONAL, true).record(() ->
+                slotRepo.transitionStatusAll(slotIds, SlotStatus.AVAILABLE, SlotStatus.BOOKED, LocalDateTime.now()));
+        // Loaded after the update so the persistence context sees the claimed status
+        List<Slot> slots = slotRepo.findAllWithVenueById(slotIds);
+
+        if (claimed != slotIds.size()) {
+            requireAllFound(slotIds, slots);
+            log.warn("Lost booking race for some of slots: {}", slotIds);
+            throw new SlotUnavailableException("Some of the slots are already booked: " + slotIds);
+        }
+        return slots;
+    }
+
+    private void requireAllFound(List<Long> slotIds, List<Slot> slots) {
+        if (slots.size() != slotIds.size()) {
+            Set<Long> found = slots.stream().map(Slot::getId).collect(Collectors.toSet());
+            List<Long> missing = slotIds.stream()
+                    .filter(id -> !found.contains(id))
+                    .collect(Collectors.toList());
+            throw new ResourceNotFoundException("Slots not found with ids: " + missing);
+        }
     }
 
     private BookingDTO toDTO(Booking booking) {
@@ -0,0 +1,9 @@
+package com.example.sports_booking.service;
+
+/**
+ * Whether a free-window query wants venues free on any of the requested days or on every one of them.
+ */
+public enum DayMatch {
+    ANY,
+    ALL
+}
@@ -0,0 +1,16 @@
+package com.example.sports_booking.service;
+
+public enum ExportFormat {
+    NDJSON("application/x-ndjson"),
+    CSV("text/csv");
+
+    private final String contentType;
+
+    ExportFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+}
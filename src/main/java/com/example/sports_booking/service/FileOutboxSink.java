@@ -0,0 +1,51 @@
+package com.example.sports_booking.service;
+
+import com.example.sports_booking.dto.OutboxEventDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends outbox events to a local file as NDJSON, one event per line.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.sink", havingValue = "file", matchIfMissing = true)
+public class FileOutboxSink implements OutboxSink {
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+
+    public FileOutboxSink(@Value("${outbox.file:data/outbox-events.ndjson}") Path file, ObjectMapper objectMapper) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxEventDTO> events) {
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (OutboxEventDTO event : events) {
+                    writer.write(objectMapper.writeValueAsString(event));
+                    writer.newLine();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append outbox events to " + file, e);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.sports_booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timer wheel: deadlines are rounded up to a tick and hashed into {@code wheelSize} buckets, so
+ * scheduling is O(1) and each tick only looks at one bucket. A single daemon thread owns the buckets;
+ * other threads hand new timeouts over through a queue that the tick thread drains.
+ * <p>
+ * Timeouts are not persistent and fire at most one tick late. Callbacks run on the tick thread and
+ * must be short.
+ */
+@Slf4j
+final class HashedTimerWheel<T> implements AutoCloseable {
+
+    private final long tickMillis;
+    private final List<List<Timeout<T>>> buckets;
+    private final Queue<Timeout<T>> incoming = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Consumer<T> onExpiry;
+    private final long startMillis;
+    private final ScheduledExecutorService ticker;
+    private long currentTick;
+
+    HashedTimerWheel(String name, Duration tick, int wheelSize, Consumer<T> onExpiry) {
+        if (tick.toMillis() < 1 || wheelSize < 1) {
+            throw new IllegalArgumentException("tick and wheelSize must be positive");
+        }
+        this.tickMillis = tick.toMillis();
+        this.onExpiry = onExpiry;
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        this.startMillis = System.currentTimeMillis();
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::advance, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /** Calls back with {@code task} once {@code deadlineMillis} (epoch millis) has passed. */
+    void schedule(T task, long deadlineMillis) {
+        long deadlineTick = Math.max(0, (deadlineMillis - startMillis + tickMillis - 1) / tickMillis);
+        incoming.add(new Timeout<>(task, deadlineTick));
+        pending.incrementAndGet();
+    }
+
+    int pending() {
+        return pending.get();
+    }
+
+    @Override
+    public void close() {
+        ticker.shutdownNow();
+    }
+
+    private void advance() {
+        long nowTick = (System.currentTimeMillis() - startMillis) / tickMillis;
+        while (currentTick < nowTick) {
+            currentTick++;
+            transferIncoming();
+            expire(buckets.get((int) (currentTick % buckets.size())));
+        }
+    }
+
+    private void transferIncoming() {
+        Timeout<T> timeout;
+        while ((timeout = incoming.poll()) != null) {
+            // Already due: fire from the current bucket instead of waiting a whole revolution
+            long tick = Math.max(timeout.deadlineTick, currentTick);
+            buckets.get((int) (tick % buckets.size())).add(timeout);
+        }
+    }
+
+    private void expire(List<Timeout<T>> bucket) {
+        Iterator<Timeout<T>> it = bucket.iterator();
+        while (it.hasNext()) {
+            Timeout<T> timeout = it.next();
+            if (timeout.deadlineTick <= currentTick) {
+                it.remove();
+                pending.decrementAndGet();
+                try {
+                    onExpiry.accept(timeout.task);
+                } catch (RuntimeException e) {
+                    log.error("Timer callback failed for {}", timeout.task, e);
+                }
+            }
+        }
+    }
+
+    private static final class Timeout<T> {
+        private final T task;
+        private final long deadlineTick;
+
+        private Timeout(T task, long deadlineTick) {
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
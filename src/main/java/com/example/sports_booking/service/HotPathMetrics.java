@@ -0,0 +1,213 @@
+package com.example.sports_booking.service;
+
+import com.example.sports_booking.exception.BookingException;
+import com.example.sports_booking.exception.ResourceNotFoundException;
+import com.example.sports_booking.exception.SlotUnavailableException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters for the booking, slot and availability hot paths. Every meter is registered up front so
+ * recording is a map lookup and an atomic update, cheap enough to leave on in production.
+ */
+@Component
+public class HotPathMetrics {
+
+    /** A booking operation and the outcome tag values it reports. */
+    public enum Operation {
+        BOOK("booking.book", "confirmed", "already_booked"),
+        CANCEL("booking.cancel", "cancelled", "already_cancelled"),
+        CONFIRM_HOLD("booking.hold.confirm", "confirmed", "expired");
+
+        private final String meterName;
+        private final String success;
+        private final String conflict;
+
+        Operation(String meterName, String success, String conflict) {
+            this.meterName = meterName;
+            this.success = success;
+            this.conflict = conflict;
+        }
+    }
+
+    private static final String NOT_FOUND = "not_found";
+    private static final String ERROR = "error";
+
+    private final MeterRegistry registry;
+    private final Map<Operation, Map<String, Timer>> operations = new EnumMap<>(Operation.class);
+    private final Map<String, Timer> slotClaims = new HashMap<>();
+    private final Timer overlapAccepted;
+    private final Timer overlapRejected;
+    private final Map<String, Timer> availabilityQueries = new HashMap<>();
+    private final Map<String, DistributionSummary> availabilityResults = new HashMap<>();
+
+    public HotPathMetrics(MeterRegistry registry) {
+        this.registry = registry;
+
+        for (Operation operation : Operation.values()) {
+            Map<String, Timer> byOutcome = new HashMap<>();
+            for (String outcome : new String[]{operation.success, operation.conflict, NOT_FOUND, ERROR}) {
+                byOutcome.put(outcome, latency(Timer.builder(operation.meterName)
+                        .description("Booking service call including commit, by outcome")
+                        .tag("outcome", outcome)));
+            }
+            operations.put(operation, byOutcome);
+        }
+
+        for (BookingClaimMode mode : BookingClaimMode.values()) {
+            for (String scope : new String[]{"single", "batch"}) {
+                slotClaims.put(mode + scope, latency(Timer.builder("booking.slot.claim")
+                        .description("Time to acquire the slot row lock, or to run the conditional claim")
+                        .tag("mode", mode.name().toLowerCase())
+                        .tag("scope", scope)));
+            }
+        }
+
+        overlapAccepted = overlapTimer("accepted");
+        overlapRejected = overlapTimer("overlap");
+
+        for (String kind : new String[]{"page", "stream", "window_index", "window_scan"}) {
+            for (String filter : new String[]{"sport", "all"}) {
+                availabilityQueries.put(kind + filter, Timer.builder("availability.query")
+                        .description("Availability queries issued, and their latency")
+                        .tag("kind", kind)
+                        .tag("filter", filter)
+                        .register(registry));
+                availabilityResults.put(kind + filter, DistributionSummary.builder("availability.results")
+                        .description("Rows returned per availability request")
+                        .baseUnit("rows")
+                        .tag("kind", kind)
+                        .tag("filter", filter)
+                        .register(registry));
+            }
+        }
+    }
+
+    /**
+     * Starts timing a booking operation. The time is recorded when the surrounding transaction completes,
+     * so it includes the commit; a commit that fails after {@link OperationTimer#succeeded()} counts as an error.
+     */
+    public OperationTimer start(Operation operation) {
+        OperationTimer timer = new OperationTimer(operations.get(operation), operation, registry.config().clock().monotonicTime());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(timer);
+            timer.deferred = true;
+        }
+        return timer;
+    }
+
+    public Timer slotClaim(BookingClaimMode mode, boolean batch) {
+        return slotClaims.get(mode + (batch ? "batch" : "single"));
+    }
+
+    public Timer.Sample startSample() {
+        return Timer.start(registry);
+    }
+
+    /** Overlap check latency, including the wait for the venue lock. */
+    public Timer overlapCheck(boolean overlapped) {
+        return overlapped ? overlapRejected : overlapAccepted;
+    }
+
+    public Timer availabilityQuery(boolean stream, String sportId) {
+        return availabilityQueries.get(availabilityKey(stream, sportId));
+    }
+
+    public DistributionSummary availabilityResults(boolean stream, String sportId) {
+        return availabilityResults.get(availabilityKey(stream, sportId));
+    }
+
+    /** Free-window query latency, answered from the bitmap index or by scanning slots. */
+    public Timer freeWindowQuery(boolean indexed, String sportId) {
+        return availabilityQueries.get(windowKey(indexed, sportId));
+    }
+
+    public DistributionSummary freeWindowResults(boolean indexed, String sportId) {
+        return availabilityResults.get(windowKey(indexed, sportId));
+    }
+
+    private Timer overlapTimer(String outcome) {
+        return latency(Timer.builder("slot.overlap.check")
+                .description("Slot overlap check including the venue lock wait, by outcome")
+                .tag("outcome", outcome));
+    }
+
+    private Timer latency(Timer.Builder builder) {
+        return builder
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(registry);
+    }
+
+    private static String availabilityKey(boolean stream, String sportId) {
+        return (stream ? "stream" : "page") + filter(sportId);
+    }
+
+    private static String windowKey(boolean indexed, String sportId) {
+        return (indexed ? "window_index" : "window_scan") + filter(sportId);
+    }
+
+    private static String filter(String sportId) {
+        return sportId != null && !sportId.isEmpty() ? "sport" : "all";
+    }
+
+    public final class OperationTimer implements TransactionSynchronization {
+
+        private final Map<String, Timer> timers;
+        private final Operation operation;
+        private final long started;
+        private String outcome = ERROR;
+        private boolean deferred;
+
+        private OperationTimer(Map<String, Timer> timers, Operation operation, long started) {
+            this.timers = timers;
+            this.operation = operation;
+            this.started = started;
+        }
+
+        public void succeeded() {
+            outcome = operation.success;
+            if (!deferred) {
+                record();
+            }
+        }
+
+        /** Tags the outcome from the exception and returns it for rethrowing. */
+        public RuntimeException failed(RuntimeException e) {
+            if (e instanceof ResourceNotFoundException) {
+                outcome = NOT_FOUND;
+            } else if (e instanceof BookingException || e instanceof SlotUnavailableException) {
+                outcome = operation.conflict;
+            } else {
+                outcome = ERROR;
+            }
+            if (!deferred) {
+                record();
+            }
+            return e;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status != STATUS_COMMITTED && outcome.equals(operation.success)) {
+                outcome = ERROR;
+            }
+            record();
+        }
+
+        private void record() {
+            timers.get(outcome).record(registry.config().clock().monotonicTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.example.sports_booking.service;
+
+import com.example.sports_booking.config.ShardRouter;
+import com.example.sports_booking.repository.IdempotencyJdbcRepository;
+import com.example.sports_booking.repository.IdempotencyJdbcRepository.StoredResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request sent with an {@code Idempotency-Key} at most once and replays its response on retries.
+ * <p>
+ * The response is stored in {@code idempotency_key} in the same transaction as the change it describes, so a
+ * retry either finds it or finds no change. Recent responses are also kept in a bounded in-memory map, so most
+ * replays never reach the database or the rows the request touched. Duplicates arriving while the first request
+ * is still running wait for it and get its outcome, including its error. A retry that lost the race to another
+ * instance fails on the slot or the key and is then answered from the stored response. Only successful
+ * responses are stored; a failed request can be retried with the same key. Replays from memory and waiting
+ * duplicates are answered before {@link BookingAdmission} is asked, so they are never shed. The table is only
+ * read once a permit is held, so a shed request never reaches the database.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyJdbcRepository repo;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shards;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final int cleanupBatchSize;
+    private final Map<String, Completed> completed;
+    private final ConcurrentMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final Counter memoryReplays;
+    private final Counter databaseReplays;
+    private final Counter coalesced;
+
+    public IdempotencyService(IdempotencyJdbcRepository repo,
+                              TransactionTemplate transactionTemplate,
+                              ShardRouter shards,
+                              ObjectMapper objectMapper,
+                              MeterRegistry registry,
+                              @Value("${idempotency.ttl:24h}") Duration ttl,
+                              @Value("${idempotency.max-entries:100000}") int maxEntries,
+                              @Value("${idempotency.cleanup-batch-size:1000}") int cleanupBatchSize) {
+        this.repo = repo;
+        this.transactionTemplate = transactionTemplate;
+        this.shards = shards;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.cleanupBatchSize = cleanupBatchSize;
+        this.completed = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Completed> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.memoryReplays = replays(registry, "memory");
+        this.databaseReplays = replays(registry, "database");
+        this.coalesced = replays(registry, "in_flight");
+    }
+
+    /**
+     * Returns the response of the earlier request made with {@code key}, or runs {@code call} and stores its
+     * result under the key. {@code call} must open its transaction with the default propagation so it joins
+     * the one the response is stored in. {@code operation} names the request and its arguments; reusing a key
+     * for a different one is refused.
+     */
+    public <T> T execute(String key, String operation, Class<T> type, Supplier<T> call) {
+        return execute(key, operation, type, () -> BookingAdmission.Permit.NONE, call);
+    }
+
+    /**
+     * As {@link #execute(String, String, Class, Supplier)}, taking a permit from {@code admit} unless the
+     * response is in memory or the same request is in flight, before the stored responses are looked up.
+     */
+    public <T> T execute(String key, String operation, Class<T> type,
+                         Supplier<BookingAdmission.Permit> admit, Supplier<T> call) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String fingerprint = fingerprint(operation);
+
+        Completed cached = cached(key);
+        if (cached != null) {
+            requireSameRequest(cached.fingerprint, fingerprint);
+            memoryReplays.increment();
+            log.info("Replaying response for idempotency key: {}", key);
+            return type.cast(cached.value);
+        }
+
+        InFlight mine = new InFlight(fingerprint);
+        InFlight running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            requireSameRequest(running.fingerprint, fingerprint);
+            coalesced.increment();
+            log.info("Waiting for in-flight request with idempotency key: {}", key);
+            return type.cast(join(running.result));
+        }
+
+        try {
+            Completed result = runOnce(key, fingerprint, type, admit, call);
+            remember(key, result);
+            mine.result.complete(result.value);
+            return type.cast(result.value);
+        } catch (RuntimeException | Error e) {
+            mine.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * Deletes expired keys on every shard, {@code idempotency.cleanup-batch-size} rows per statement so that no
+     * single delete holds locks on a large part of the table.
+     */
+    @Scheduled(fixedDelayString = "${idempotency.cleanup-interval:PT1H}")
+    public void deleteExpired() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            shards.forEachShard(shard -> {
+                int deleted;
+                do {
+                    deleted = repo.deleteExpired(now, cleanupBatchSize);
+                } while (deleted == cleanupBatchSize);
+            });
+            synchronized (completed) {
+                completed.values().removeIf(entry -> !entry.expiresAt.isAfter(now));
+            }
+        } catch (RuntimeException e) {
+            log.error("Deleting expired idempotency keys failed", e);
+        }
+    }
+
+    private <T> Completed runOnce(String key, String fingerprint, Class<T> type,
+                                  Supplier<BookingAdmission.Permit> admit, Supplier<T> call) {
+        try (BookingAdmission.Permit permit = admit.get()) {
+            Completed stored = stored(key, fingerprint, type);
+            if (stored != null) {
+                return stored;
+            }
+            return runAndStore(key, fingerprint, type, call);
+        }
+    }
+
+    private <T> Completed runAndStore(String key, String fingerprint, Class<T> type, Supplier<T> call) {
+        try {
+            return transactionTemplate.execute(status -> {
+                T result = call.get();
+                LocalDateTime now = LocalDateTime.now();
+                LocalDateTime expiresAt = now.plus(ttl);
+                repo.insert(key, fingerprint, serialize(result), now, expiresAt);
+                return new Completed(fingerprint, result, expiresAt);
+            });
+        } catch (RuntimeException e) {
+            // Another instance may have completed the same request and made this attempt fail
+            Completed raced = stored(key, fingerprint, type);
+            if (raced == null) {
+                throw e;
+            }
+            return raced;
+        }
+    }
+
+    private Completed stored(String key, String fingerprint, Class<?> type) {
+        LocalDateTime now = LocalDateTime.now();
+        Optional<StoredResponse> stored = shards.gather(shard -> repo.find(key, now)).stream()
+                .flatMap(Optional::stream)
+                .findFirst();
+        if (stored.isEmpty()) {
+            return null;
+        }
+        requireSameRequest(stored.get().getFingerprint(), fingerprint);
+        databaseReplays.increment();
+        log.info("Replaying stored response for idempotency key: {}", key);
+        return new Completed(fingerprint, deserialize(stored.get().getBody(), type), stored.get().getExpiresAt());
+    }
+
+    private Completed cached(String key) {
+        synchronized (completed) {
+            Completed entry = completed.get(key);
+            if (entry != null && !entry.expiresAt.isAfter(LocalDateTime.now())) {
+                completed.remove(key);
+                return null;
+            }
+            return entry;
+        }
+    }
+
+    private void remember(String key, Completed entry) {
+        synchronized (completed) {
+            completed.put(key, entry);
+        }
+    }
+
+    private static void requireSameRequest(String stored, String fingerprint) {
+        if (!stored.equals(fingerprint)) {
+            throw new IllegalArgumentException(HEADER + " was already used for a different request");
+        }
+    }
+
+    private static Object join(CompletableFuture<Object> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private String serialize(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot store response for idempotent request", e);
+        }
+    }
+
+    private <T> T deserialize(String body, Class<T> type) {
+        if (body == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(body, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read stored response for idempotent request", e);
+        }
+    }
+
+    private static String fingerprint(String operation) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(operation.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Counter replays(MeterRegistry registry, String source) {
+        return Counter.builder("idempotency.replays")
+                .description("Requests answered with the response of an earlier request with the same key")
+                .tag("source", source)
+                .register(registry);
+    }
+
+    private static final class InFlight {
+        private final String fingerprint;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        private InFlight(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    private static final class Completed {
+        private final String fingerprint;
+        private final Object value;
+        private final LocalDateTime expiresAt;
+
+        private Completed(String fingerprint, Object value, LocalDateTime expiresAt) {
+            this.fingerprint = fingerprint;
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.sports_booking.service;
+
+import com.example.sports_booking.config.ShardRouter;
+import com.example.sports_booking.dto.OutboxEventDTO;
+import com.example.sports_booking.repository.OutboxJdbcRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drains {@code outbox_event} into the {@link OutboxSink} in batches, off the request path.
+ * <p>
+ * Events are read in id order, {@code outbox.batch-size} at a time, and handed to the sink one venue at a
+ * time; delivered events are then deleted. A venue is held back for the rest of a run once it has an event
+ * younger than {@code outbox.settle} or its delivery failed, so none of its later events can overtake it, while
+ * the run reads on past it for the other venues. A run stops early once several venues in a row failed, as the
+ * sink itself is then most likely down.
+ * <p>
+ * Ids are assigned at insert but rows become visible at commit, so the order per venue holds only for
+ * transactions that commit within {@code outbox.settle} of writing their event. An event from a longer
+ * transaction can arrive after later events of its venue were delivered; it is then still delivered, logged
+ * and counted in {@code outbox.late}. The relay is meant to run on one instance; delivery is at least once.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "outbox.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    /** Venues failing one after another with nothing delivered in between; the run then stops. */
+    static final int MAX_FAILURES_IN_A_ROW = 3;
+
+    private final OutboxJdbcRepository repo;
+    private final OutboxSink sink;
+    private final ShardRouter shards;
+    private final int batchSize;
+    private final Duration settle;
+    private final Counter published;
+    private final Counter failures;
+    private final Counter late;
+    private final Map<Long, Long> lastDelivered = new ConcurrentHashMap<>();
+
+    public OutboxRelay(OutboxJdbcRepository repo,
+                       OutboxSink sink,
+                       ShardRouter shards,
+                       MeterRegistry registry,
+                       @Value("${outbox.batch-size:500}") int batchSize,
+                       @Value("${outbox.settle:1s}") Duration settle) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("outbox.batch-size must be positive");
+        }
+        this.repo = repo;
+        this.sink = sink;
+        this.shards = shards;
+        this.batchSize = batchSize;
+        this.settle = settle;
+        this.published = Counter.builder("outbox.published")
+                .description("Outbox events delivered to the sink")
+                .register(registry);
+        this.failures = Counter.builder("outbox.publish.failures")
+                .description("Venue batches the sink failed to take; they are retried on the next run")
+                .register(registry);
+        this.late = Counter.builder("outbox.late")
+                .description("Events delivered after a later event of their venue, from transactions longer than the settle time")
+                .register(registry);
+    }
+
+    @Scheduled(initialDelayString = "${outbox.poll-interval:PT0.5S}", fixedDelayString = "${outbox.poll-interval:PT0.5S}")
+    public void scheduledRelay() {
+        try {
+            relay();
+        } catch (RuntimeException e) {
+            log.error("Outbox relay failed", e);
+        }
+    }
+
+    /** Delivers the settled events of every venue that is not held back and returns how many were delivered. */
+    public int relay() {
+        AtomicInteger total = new AtomicInteger();
+        shards.forEachShard(shard -> total.addAndGet(relayShard()));
+        if (total.get() > 0) {
+            log.debug("Relayed {} outbox events", total.get());
+        }
+        return total.get();
+    }
+
+    private int relayShard() {
+        int delivered = 0;
+        Set<Long> heldBack = new HashSet<>();
+        int failuresInARow = 0;
+        long afterId = 0;
+        while (true) {
+            LocalDateTime settledBefore = LocalDateTime.now().minus(settle);
+            List<OutboxEventDTO> batch = repo.findAfter(afterId, batchSize);
+            if (batch.isEmpty()) {
+                return delivered;
+            }
+            afterId = batch.get(batch.size() - 1).getId();
+
+            Map<Long, List<OutboxEventDTO>> byVenue = new LinkedHashMap<>();
+            for (OutboxEventDTO event : batch) {
+                if (heldBack.contains(event.getVenueId())) {
+                    continue;
+                }
+                if (!event.getOccurredAt().isBefore(settledBefore)) {
+                    heldBack.add(event.getVenueId());
+                    continue;
+                }
+                byVenue.computeIfAbsent(event.getVenueId(), venueId -> new ArrayList<>()).add(event);
+            }
+
+            List<Long> done = new ArrayList<>(batch.size());
+            for (List<OutboxEventDTO> events : byVenue.values()) {
+                Long venueId = events.get(0).getVenueId();
+                try {
+                    sink.publish(events);
+                } catch (RuntimeException e) {
+                    heldBack.add(venueId);
+                    failures.increment();
+                    failuresInARow++;
+                    log.warn("Outbox sink failed for venue {}; {} events kept for retry", venueId, events.size(), e);
+                    if (failuresInARow == MAX_FAILURES_IN_A_ROW) {
+                        break;
+                    }
+                    continue;
+                }
+                failuresInARow = 0;
+                checkOrder(venueId, events);
+                events.forEach(event -> done.add(event.getId()));
+            }
+            if (!done.isEmpty()) {
+                repo.delete(done);
+                published.increment(done.size());
+                delivered += done.size();
+            }
+            if (failuresInARow == MAX_FAILURES_IN_A_ROW || batch.size() < batchSize) {
+                return delivered;
+            }
+        }
+    }
+
+    private void checkOrder(Long venueId, List<OutboxEventDTO> events) {
+        long first = events.get(0).getId();
+        Long previous = lastDelivered.get(venueId);
+        lastDelivered.merge(venueId, events.get(events.size() - 1).getId(), Math::max);
+        if (previous != null && first < previous) {
+            long count = events.stream().filter(event -> event.getId() < previous).count();
+            late.increment(count);
+            log.warn("{} outbox events of venue {} were delivered after event {}; raise outbox.settle above the "
+                    + "longest booking transaction", count, venueId, previous);
+        }
+    }
+}
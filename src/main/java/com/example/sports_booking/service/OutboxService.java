@@ -0,0 +1,62 @@
+package com.example.sports_booking.service;
+
+import com.example.sports_booking.dto.BookingDTO;
+import com.example.sports_booking.dto.OutboxEventDTO;
+import com.example.sports_booking.entity.OutboxEventType;
+import com.example.sports_booking.repository.OutboxJdbcRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Records booking and slot changes in {@code outbox_event} within the transaction that makes them, so an event
+ * exists exactly when its change committed. Each call is a single insert; {@link OutboxRelay} delivers them.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final OutboxJdbcRepository repo;
+
+    public void recordBookings(OutboxEventType type, List<BookingDTO> bookings) {
+        record(bookings.stream()
+                .map(booking -> OutboxEventDTO.builder()
+                        .type(type)
+                        .venueId(booking.getVenueId())
+                        .slotId(booking.getSlotId())
+                        .bookingId(booking.getId())
+                        .userName(booking.getUserName())
+                        .build())
+                .collect(Collectors.toList()));
+    }
+
+    public void recordSlots(OutboxEventType type, Long venueId, List<Long> slotIds) {
+        record(slotIds.stream()
+                .map(slotId -> OutboxEventDTO.builder().type(type).venueId(venueId).slotId(slotId).build())
+                .collect(Collectors.toList()));
+    }
+
+    /** For callers that only know the slot ids; the venues are read by the insert itself. */
+    public void recordSlots(OutboxEventType type, Collection<Long> slotIds) {
+        if (!slotIds.isEmpty()) {
+            requireTransaction();
+            repo.insertForSlots(type, slotIds, LocalDateTime.now());
+        }
+    }
+
+    private void record(List<OutboxEventDTO> events) {
+        requireTransaction();
+        repo.insert(events, LocalDateTime.now());
+    }
+
+    private static void requireTransaction() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Outbox events must be recorded in the transaction of their change");
+        }
+    }
+}
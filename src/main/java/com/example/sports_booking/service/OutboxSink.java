@@ -0,0 +1,15 @@
+package com.example.sports_booking.service;
+
+import com.example.sports_booking.dto.OutboxEventDTO;
+
+import java.util.List;
+
+/**
+ * Where {@link OutboxRelay} delivers booking and slot events. Delivery is at least once: a batch is resent
+ * until {@link #publish} returns without throwing, so consumers should deduplicate by event id.
+ */
+public interface OutboxSink {
+
+    /** Delivers events of one venue, oldest first. */
+    void publish(List<OutboxEventDTO> events);
+}
@@ -0,0 +1,393 @@
+package com.example.sports_booking.service;
+
+import com.example.sports_booking.config.ShardRouter;
+import com.example.sports_booking.entity.SlotStatus;
+import com.example.sports_booking.repository.SlotJdbcRepository;
+import com.example.sports_booking.repository.SlotStatusView;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Availability bitmap per venue and day, so "which venues are free 18:00-20:00 on any day this week" is
+ * answered with a few word-level ANDs per venue-day instead of a range scan over the {@code slot} table.
+ * <p>
+ * A day is cut into {@code bucket-minutes} buckets (96 for 15 minutes, two {@code long} words), and a bit is
+ * set while an available slot covers the whole bucket. Every venue keeps a ring of {@code horizon-days} days
+ * starting today: 10,000 venues with a year of 15-minute buckets take about 60 MB. Slot edges off the bucket
+ * grid leave the partial buckets clear, so the index may miss a window but never reports a taken one as free.
+ * <p>
+ * The index is loaded from the database in the background at startup, follows committed changes through
+ * {@link SlotEventHub}, and loads the day entering the horizon after midnight. Changes that arrive while the
+ * database is being read are held back and applied once the read is in place. Changes made on other instances,
+ * or whose commit-time read failed, never reach the hub, so the index is also rebuilt every
+ * {@code reload-interval}; until then such a booked window can still be reported free.
+ */
+@Slf4j
+@Component
+public class SlotAvailabilityIndex implements SlotStatusListener {
+
+    private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+
+    private final SlotJdbcRepository slotJdbcRepo;
+    private final ShardRouter shards;
+    private final boolean enabled;
+    private final int bucketSeconds;
+    private final int wordsPerDay;
+    private final int horizonDays;
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final List<SlotStatusView> heldBack = new ArrayList<>();
+    private boolean loading;
+    private volatile Table table;
+
+    public SlotAvailabilityIndex(SlotJdbcRepository slotJdbcRepo,
+                                 ShardRouter shards,
+                                 @Value("${availability-index.enabled:true}") boolean enabled,
+                                 @Value("${availability-index.bucket-minutes:15}") int bucketMinutes,
+                                 @Value("${availability-index.horizon-days:366}") int horizonDays) {
+        if (bucketMinutes < 1 || SECONDS_PER_DAY % (bucketMinutes * 60) != 0) {
+            throw new IllegalArgumentException("availability-index.bucket-minutes must divide a day, got " + bucketMinutes);
+        }
+        this.slotJdbcRepo = slotJdbcRepo;
+        this.shards = shards;
+        this.enabled = enabled;
+        this.bucketSeconds = bucketMinutes * 60;
+        this.wordsPerDay = (SECONDS_PER_DAY / bucketSeconds + 63) / 64;
+        this.horizonDays = horizonDays;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadInBackground() {
+        if (enabled) {
+            Thread.ofPlatform().name("availability-index-loader").daemon().start(this::load);
+        }
+    }
+
+    /**
+     * Rebuilds the whole index from the {@code slot} table, for the horizon starting today.
+     */
+    public void load() {
+        loadLock.lock();
+        try {
+            log.info("Loading availability index for {} days", horizonDays);
+            long started = System.currentTimeMillis();
+            holdBackChanges();
+
+            Table fresh = new Table(LocalDate.now().toEpochDay());
+            try {
+                shards.forEachShard(shard -> slotJdbcRepo.streamAvailableSlotRanges(day(fresh.firstDay),
+                        day(fresh.firstDay + horizonDays),
+                        (venueId, sportId, start, end) -> mark(fresh, venueId, sportId, start, end, true)));
+            } catch (RuntimeException e) {
+                log.error("Failed to load availability index; free-window queries fall back to scanning slots", e);
+                releaseHeldBack(null);
+                return;
+            }
+            releaseHeldBack(fresh);
+            log.info("Availability index loaded: {} venues in {} ms", fresh.venues.size(), System.currentTimeMillis() - started);
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * Rebuilds the index from the table, picking up changes that did not come through this instance's hub.
+     */
+    @Scheduled(fixedDelayString = "${availability-index.reload-interval:PT5M}",
+            initialDelayString = "${availability-index.reload-interval:PT5M}")
+    public void reload() {
+        if (enabled) {
+            load();
+        }
+    }
+
+    /**
+     * Moves the horizon up to today, loading each day that enters it. Retries the full load if it failed.
+     */
+    @Scheduled(cron = "${availability-index.roll-cron:0 0 0 * * *}")
+    public void roll() {
+        if (!enabled) {
+            return;
+        }
+        Table current = table;
+        long today = LocalDate.now().toEpochDay();
+        if (current == null || today - current.firstDay >= horizonDays) {
+            load();
+            return;
+        }
+        loadLock.lock();
+        try {
+            rollTo(current, today);
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private void rollTo(Table current, long today) {
+        while (current.firstDay < today) {
+            long entering = current.firstDay + horizonDays;
+            holdBackChanges();
+            List<SlotRange> ranges = new ArrayList<>();
+            try {
+                shards.forEachShard(shard -> slotJdbcRepo.streamAvailableSlotRanges(day(entering), day(entering + 1),
+                        (venueId, sportId, start, end) -> ranges.add(new SlotRange(venueId, sportId, start, end))));
+            } catch (RuntimeException e) {
+                log.error("Failed to load day {} into the availability index; reloading it tomorrow", day(entering), e);
+                releaseHeldBack(null);
+                return;
+            }
+
+            writeLock.lock();
+            try {
+                // The leaving day and the entering day share a position in every ring
+                int offset = offset(current.firstDay);
+                for (VenueDays venue : current.venues.values()) {
+                    for (int w = 0; w < wordsPerDay; w++) {
+                        venue.words.set(offset + w, 0L);
+                    }
+                }
+                current.firstDay++;
+                for (SlotRange range : ranges) {
+                    mark(current, range.venueId, range.sportId, range.startTime, range.endTime, true);
+                }
+            } finally {
+                writeLock.unlock();
+            }
+            releaseHeldBack(current);
+            log.info("Availability index rolled to {}: loaded {} slots for {}", day(current.firstDay), ranges.size(), day(entering));
+        }
+    }
+
+    @Override
+    public void onSlotStatusChanged(List<SlotStatusView> changes) {
+        writeLock.lock();
+        try {
+            if (loading) {
+                heldBack.addAll(changes);
+            } else if (table != null) {
+                changes.forEach(change -> apply(table, change));
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Drops a venue from the index once the current transaction commits, e.g. after the venue is deleted.
+     */
+    public void evictAfterCommit(Long venueId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                writeLock.lock();
+                try {
+                    Table current = table;
+                    VenueDays venue = current != null ? current.venues.remove(venueId) : null;
+                    if (venue != null && current.bySport.containsKey(venue.sportId)) {
+                        current.bySport.get(venue.sportId).remove(venueId);
+                    }
+                } finally {
+                    writeLock.unlock();
+                }
+            }
+        });
+    }
+
+    /**
+     * Venues whose buckets covering {@code [fromTime, toTime)} are all free on any (or every) day from
+     * {@code fromDate} to {@code toDate}, with those days, in venue id order starting after
+     * {@code afterVenueId}. {@code venueIds}, when not null, restricts the candidates. At most {@code limit}
+     * venues are returned. Returns {@code null} when the index is not loaded or the dates leave its horizon,
+     * so the caller can fall back to the database.
+     */
+    public Map<Long, List<LocalDate>> findFree(String sportId, Collection<Long> venueIds, LocalDate fromDate, LocalDate toDate,
+                                               LocalTime fromTime, LocalTime toTime, DayMatch match,
+                                               long afterVenueId, int limit) {
+        Table current = table;
+        long firstDay = fromDate.toEpochDay();
+        long lastDay = toDate.toEpochDay();
+        if (current == null || firstDay < current.firstDay || lastDay >= current.firstDay + horizonDays) {
+            return null;
+        }
+
+        long[] mask = new long[wordsPerDay];
+        int fromBucket = fromTime.toSecondOfDay() / bucketSeconds;
+        int toBucket = (toTime.toSecondOfDay() + bucketSeconds - 1) / bucketSeconds;
+        for (int bucket = fromBucket; bucket < toBucket; bucket++) {
+            mask[bucket >> 6] |= 1L << (bucket & 63);
+        }
+
+        NavigableSet<Long> candidates;
+        if (venueIds != null) {
+            candidates = new TreeSet<>(venueIds);
+        } else if (sportId != null && !sportId.isEmpty()) {
+            candidates = current.bySport.getOrDefault(sportId, new ConcurrentSkipListSet<>());
+        } else {
+            candidates = current.venues.navigableKeySet();
+        }
+        Map<Long, List<LocalDate>> free = new LinkedHashMap<>();
+        for (Long venueId : candidates.tailSet(afterVenueId, false)) {
+            VenueDays venue = current.venues.get(venueId);
+            if (venue == null) {
+                continue;
+            }
+            List<LocalDate> days = new ArrayList<>();
+            for (long day = firstDay; day <= lastDay; day++) {
+                if (covers(venue.words, offset(day), mask)) {
+                    days.add(LocalDate.ofEpochDay(day));
+                } else if (match == DayMatch.ALL) {
+                    days = null;
+                    break;
+                }
+            }
+            if (days != null && !days.isEmpty()) {
+                free.put(venueId, days);
+                if (free.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return free;
+    }
+
+    public boolean isLoaded() {
+        return table != null;
+    }
+
+    private boolean covers(AtomicLongArray words, int offset, long[] mask) {
+        for (int w = 0; w < wordsPerDay; w++) {
+            if (mask[w] != 0 && (words.get(offset + w) & mask[w]) != mask[w]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void apply(Table target, SlotStatusView change) {
+        mark(target, change.getVenueId(), change.getSportId(), change.getStartTime(), change.getEndTime(),
+                change.getStatus() == SlotStatus.AVAILABLE);
+    }
+
+    /** Sets or clears the buckets fully covered by {@code [start, end)}; only called under the write lock or on a private table. */
+    private void mark(Table target, long venueId, String sportId, LocalDateTime start, LocalDateTime end, boolean free) {
+        long firstDay = Math.max(start.toLocalDate().toEpochDay(), target.firstDay);
+        long lastDay = Math.min(end.toLocalDate().toEpochDay(), target.firstDay + horizonDays - 1);
+        if (firstDay > lastDay) {
+            return;
+        }
+        VenueDays venue = target.venues.get(venueId);
+        if (venue == null) {
+            if (!free) {
+                return;
+            }
+            venue = new VenueDays(sportId, new AtomicLongArray(horizonDays * wordsPerDay));
+            target.venues.put(venueId, venue);
+            target.bySport.computeIfAbsent(sportId, id -> new ConcurrentSkipListSet<>()).add(venueId);
+        }
+
+        for (long day = firstDay; day <= lastDay; day++) {
+            LocalDateTime dayStart = day(day);
+            long fromSecond = Math.max(0, ChronoUnit.SECONDS.between(dayStart, start));
+            long toSecond = Math.min(SECONDS_PER_DAY, ChronoUnit.SECONDS.between(dayStart, end));
+            int fromBucket = (int) ((fromSecond + bucketSeconds - 1) / bucketSeconds);
+            int toBucket = (int) (toSecond / bucketSeconds);
+            int offset = offset(day);
+            for (int bucket = fromBucket; bucket < toBucket; bucket++) {
+                int index = offset + (bucket >> 6);
+                long bit = 1L << (bucket & 63);
+                long word = venue.words.get(index);
+                venue.words.set(index, free ? word | bit : word & ~bit);
+            }
+        }
+    }
+
+    private void holdBackChanges() {
+        writeLock.lock();
+        try {
+            loading = true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /** Installs {@code loaded} (unless null) and applies the changes committed while it was read. */
+    private void releaseHeldBack(Table loaded) {
+        writeLock.lock();
+        try {
+            if (loaded != null) {
+                table = loaded;
+                heldBack.forEach(change -> apply(loaded, change));
+            }
+            heldBack.clear();
+            loading = false;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private int offset(long day) {
+        return (int) Math.floorMod(day, (long) horizonDays) * wordsPerDay;
+    }
+
+    private static LocalDateTime day(long epochDay) {
+        return LocalDate.ofEpochDay(epochDay).atStartOfDay();
+    }
+
+    private static final class Table {
+        private final ConcurrentSkipListMap<Long, VenueDays> venues = new ConcurrentSkipListMap<>();
+        private final ConcurrentMap<String, ConcurrentSkipListSet<Long>> bySport = new ConcurrentHashMap<>();
+        private volatile long firstDay;
+
+        private Table(long firstDay) {
+            this.firstDay = firstDay;
+        }
+    }
+
+    private static final class VenueDays {
+        private final String sportId;
+        private final AtomicLongArray words;
+
+        private VenueDays(String sportId, AtomicLongArray words) {
+            this.sportId = sportId;
+            this.words = words;
+        }
+    }
+
+    private static final class SlotRange {
+        private final long venueId;
+        private final String sportId;
+        private final LocalDateTime startTime;
+        private final LocalDateTime endTime;
+
+        private SlotRange(long venueId, String sportId, LocalDateTime startTime, LocalDateTime endTime) {
+            this.venueId = venueId;
+            this.sportId = sportId;
+            this.startTime = startTime;
+            this.endTime = endTime;
+        }
+    }
+}
@@ -0,0 +1,431 @@
+package com.example.sports_booking.service;
+
+import com.example.sports_booking.dto.SlotEventDTO;
+import com.example.sports_booking.exception.SubscriberLimitException;
+import com.example.sports_booking.repository.SlotRepository;
+import com.example.sports_booking.repository.SlotStatusView;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pushes slot status changes to server-sent event subscribers, optionally filtered by venue or sport.
+ * <p>
+ * Writers report changed slot ids with {@link #publishAfterCommit}; once the transaction commits the slots'
+ * status is handed to every {@link SlotStatusListener}, numbered and kept in a fixed-size replay ring, so a
+ * client reconnecting with {@code Last-Event-ID} receives what it missed. Every subscriber has a bounded queue drained by a
+ * virtual thread; an idle subscriber costs no thread. A subscriber whose queue overflows, or whose resume
+ * point has left the ring, gets a {@code reset} event telling it to refetch availability instead.
+ */
+@Slf4j
+@Component
+public class SlotEventHub {
+
+    private static final String SLOT_EVENT = "slot";
+    private static final String RESET_EVENT = "reset";
+    private static final int QUERY_CHUNK = 1000;
+    // Commits finish their after-commit work within moments of each other; older versions are long gone
+    private static final long VERSION_RETENTION_NANOS = Duration.ofMinutes(1).toNanos();
+
+    private final SlotRepository slotRepo;
+    private final List<SlotStatusListener> listeners;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final Duration timeout;
+    // Sequences restart with the process, so event ids carry the start time to detect a resume across restarts
+    private final long epoch = System.currentTimeMillis();
+    private final SlotEventDTO[] replay;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Set<Subscriber> subscribers = new HashSet<>();
+    private final Set<Subscriber> unfiltered = new HashSet<>();
+    private final Map<Long, Set<Subscriber>> byVenue = new HashMap<>();
+    private final Map<String, Set<Subscriber>> bySport = new HashMap<>();
+    private final ExecutorService senders =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("slot-events-", 0).factory());
+    private final Counter overflowResets;
+    private final Counter resumeResets;
+    private final AtomicLong versions = new AtomicLong();
+    // Slot id to {version, publish time} of its latest published change, oldest first
+    private final LinkedHashMap<Long, long[]> lastVersions = new LinkedHashMap<>();
+    private long sequence;
+
+    public SlotEventHub(SlotRepository slotRepo,
+                        List<SlotStatusListener> listeners,
+                        MeterRegistry registry,
+                        @Value("${slot-events.buffer-size:256}") int bufferSize,
+                        @Value("${slot-events.replay-size:10000}") int replaySize,
+                        @Value("${slot-events.max-subscribers:50000}") int maxSubscribers,
+                        @Value("${slot-events.timeout:30m}") Duration timeout) {
+        this.slotRepo = slotRepo;
+        this.listeners = listeners;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeout = timeout;
+        this.replay = new SlotEventDTO[replaySize];
+
+        Gauge.builder("slot.events.subscribers", this, SlotEventHub::subscriberCount)
+                .description("Open slot event feed connections")
+                .register(registry);
+        this.overflowResets = Counter.builder("slot.events.resets")
+                .description("Reset events sent instead of deltas")
+                .tag("reason", "overflow")
+                .register(registry);
+        this.resumeResets = Counter.builder("slot.events.resets")
+                .description("Reset events sent instead of deltas")
+                .tag("reason", "stale_resume")
+                .register(registry);
+    }
+
+    /**
+     * Opens a feed of changes to slots of the given venue and/or sport (both optional). With a
+     * {@code lastEventId} from an earlier connection, missed changes are replayed first.
+     */
+    public SseEmitter subscribe(Long venueId, String sportId, String lastEventId) {
+        log.info("Subscribing to slot events - venue: {}, sport: {}, last event: {}", venueId, sportId, lastEventId);
+
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, venueId, sportId, bufferSize);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> remove(subscriber));
+
+        lock.lock();
+        try {
+            if (subscribers.size() >= maxSubscribers) {
+                throw new SubscriberLimitException("Slot event feed is at its limit of " + maxSubscribers + " subscribers");
+            }
+            if (lastEventId != null) {
+                replayMissed(subscriber, lastEventId);
+            }
+            subscribers.add(subscriber);
+            index(subscriber).add(subscriber);
+        } finally {
+            lock.unlock();
+        }
+
+        // Sends at least a comment right away so proxies see the response start
+        subscriber.heartbeatDue.set(true);
+        schedule(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Announces the given slots' status once the current transaction commits. The status is read just
+     * before the commit, while the transaction still holds the slots' row locks, and stamped with a
+     * version; a change that reaches the hub after a newer change to the same slot is dropped.
+     */
+    public void publishAfterCommit(Collection<Long> slotIds) {
+        if (slotIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(slotIds);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private List<SlotStatusView> changes = List.of();
+            private long version;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                try {
+                    changes = read(ids);
+                    version = versions.incrementAndGet();
+                } catch (RuntimeException e) {
+                    log.error("Failed to read status of {} changed slots", ids.size(), e);
+                }
+            }
+
+            @Override
+            public void afterCommit() {
+                if (!changes.isEmpty()) {
+                    publish(changes, version);
+                }
+            }
+        });
+    }
+
+    public int subscriberCount() {
+        lock.lock();
+        try {
+            return subscribers.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${slot-events.heartbeat:PT15S}", fixedDelayString = "${slot-events.heartbeat:PT15S}")
+    public void heartbeat() {
+        // Keeps idle connections open through proxies and finds clients that went away
+        for (Subscriber subscriber : snapshot()) {
+            subscriber.heartbeatDue.set(true);
+            schedule(subscriber);
+        }
+    }
+
+    /**
+     * Ends every feed when shutdown starts; open streams would otherwise hold up graceful shutdown until it
+     * times out. Clients reconnect to another instance and resume.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void closeSubscribers() {
+        snapshot().forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    @PreDestroy
+    void stop() {
+        senders.shutdownNow();
+    }
+
+    private List<SlotStatusView> read(List<Long> slotIds) {
+        List<SlotStatusView> views = new ArrayList<>(slotIds.size());
+        for (int from = 0; from < slotIds.size(); from += QUERY_CHUNK) {
+            views.addAll(slotRepo.findStatusViews(slotIds.subList(from, Math.min(from + QUERY_CHUNK, slotIds.size()))));
+        }
+        return views;
+    }
+
+    private void publish(List<SlotStatusView> views, long version) {
+        lock.lock();
+        try {
+            List<SlotStatusView> accepted = new ArrayList<>(views.size());
+            long now = System.nanoTime();
+            for (SlotStatusView view : views) {
+                long[] last = lastVersions.get(view.getId());
+                if (last != null && last[0] > version) {
+                    continue;
+                }
+                // Re-inserted so the map stays ordered by publish time
+                lastVersions.remove(view.getId());
+                lastVersions.put(view.getId(), new long[]{version, now});
+                accepted.add(view);
+
+                SlotEventDTO event = SlotEventDTO.builder()
+                        .sequence(++sequence)
+                        .slotId(view.getId())
+                        .venueId(view.getVenueId())
+                        .sportId(view.getSportId())
+                        .startTime(view.getStartTime())
+                        .endTime(view.getEndTime())
+                        .status(view.getStatus().toString())
+                        .build();
+                replay[slot(event.getSequence())] = event;
+                offer(unfiltered, event);
+                offer(byVenue.get(event.getVenueId()), event);
+                offer(bySport.get(event.getSportId()), event);
+            }
+            Iterator<long[]> oldest = lastVersions.values().iterator();
+            while (oldest.hasNext() && now - oldest.next()[1] > VERSION_RETENTION_NANOS) {
+                oldest.remove();
+            }
+
+            for (SlotStatusListener listener : listeners) {
+                try {
+                    listener.onSlotStatusChanged(accepted);
+                } catch (RuntimeException e) {
+                    log.error("Slot status listener {} failed", listener.getClass().getSimpleName(), e);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void offer(Set<Subscriber> candidates, SlotEventDTO event) {
+        if (candidates == null) {
+            return;
+        }
+        for (Subscriber subscriber : candidates) {
+            if (!subscriber.matches(event)) {
+                continue;
+            }
+            if (!subscriber.queue.offer(event)) {
+                log.warn("Slot event subscriber fell {} events behind; sending reset", bufferSize);
+                overflowResets.increment();
+                subscriber.queue.clear();
+                subscriber.resetTo.set(event.getSequence());
+            }
+            schedule(subscriber);
+        }
+    }
+
+    /** Called with the lock held, before the subscriber is indexed, so nothing is missed or sent twice. */
+    private void replayMissed(Subscriber subscriber, String lastEventId) {
+        long after = resumePoint(lastEventId);
+        long oldest = Math.max(1, sequence - replay.length + 1);
+        if (after < oldest - 1 || after > sequence) {
+            resumeResets.increment();
+            subscriber.resetTo.set(sequence);
+            return;
+        }
+        List<SlotEventDTO> missed = new ArrayList<>();
+        for (long seq = after + 1; seq <= sequence; seq++) {
+            SlotEventDTO event = replay[slot(seq)];
+            if (subscriber.matches(event)) {
+                if (missed.size() == bufferSize) {
+                    resumeResets.increment();
+                    subscriber.resetTo.set(sequence);
+                    return;
+                }
+                missed.add(event);
+            }
+        }
+        missed.forEach(subscriber.queue::offer);
+    }
+
+    private long resumePoint(String lastEventId) {
+        int dash = lastEventId.indexOf('-');
+        try {
+            if (dash > 0 && Long.parseLong(lastEventId.substring(0, dash)) == epoch) {
+                return Long.parseLong(lastEventId.substring(dash + 1));
+            }
+        } catch (NumberFormatException e) {
+            log.debug("Ignoring malformed Last-Event-ID: {}", lastEventId);
+        }
+        return -1;
+    }
+
+    private Set<Subscriber> index(Subscriber subscriber) {
+        if (subscriber.venueId != null) {
+            return byVenue.computeIfAbsent(subscriber.venueId, id -> new HashSet<>());
+        }
+        if (subscriber.sportId != null) {
+            return bySport.computeIfAbsent(subscriber.sportId, id -> new HashSet<>());
+        }
+        return unfiltered;
+    }
+
+    private void remove(Subscriber subscriber) {
+        lock.lock();
+        try {
+            if (subscribers.remove(subscriber)) {
+                Set<Subscriber> peers = index(subscriber);
+                peers.remove(subscriber);
+                if (peers.isEmpty() && subscriber.venueId != null) {
+                    byVenue.remove(subscriber.venueId);
+                } else if (peers.isEmpty() && subscriber.sportId != null) {
+                    bySport.remove(subscriber.sportId);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private List<Subscriber> snapshot() {
+        lock.lock();
+        try {
+            return new ArrayList<>(subscribers);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.draining.set(false);
+            }
+        }
+    }
+
+    /** Sends everything queued for one subscriber; at most one drain runs per subscriber at a time. */
+    private void drain(Subscriber subscriber) {
+        try {
+            do {
+                long reset = subscriber.resetTo.getAndSet(-1);
+                if (reset >= 0) {
+                    subscriber.emitter.send(SseEmitter.event()
+                            .name(RESET_EVENT)
+                            .id(eventId(reset))
+                            .data(Map.of("sequence", reset), MediaType.APPLICATION_JSON));
+                    subscriber.sentThrough = reset;
+                }
+                SlotEventDTO event;
+                while (subscriber.resetTo.get() < 0 && (event = subscriber.queue.poll()) != null) {
+                    if (event.getSequence() <= subscriber.sentThrough) {
+                        continue;
+                    }
+                    subscriber.emitter.send(SseEmitter.event()
+                            .name(SLOT_EVENT)
+                            .id(eventId(event.getSequence()))
+                            .data(event, MediaType.APPLICATION_JSON));
+                    subscriber.sentThrough = event.getSequence();
+                }
+                if (subscriber.heartbeatDue.getAndSet(false)) {
+                    subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+                }
+                subscriber.draining.set(false);
+            } while (subscriber.hasWork() && subscriber.draining.compareAndSet(false, true));
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping slot event subscriber: {}", e.getMessage());
+            subscriber.draining.set(false);
+            remove(subscriber);
+        }
+    }
+
+    private String eventId(long seq) {
+        return epoch + "-" + seq;
+    }
+
+    private int slot(long seq) {
+        return (int) (seq % replay.length);
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final Long venueId;
+        private final String sportId;
+        private final ArrayBlockingQueue<SlotEventDTO> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean heartbeatDue = new AtomicBoolean();
+        private final AtomicLong resetTo = new AtomicLong(-1);
+        // Only touched by the single active drain
+        private long sentThrough;
+
+        private Subscriber(SseEmitter emitter, Long venueId, String sportId, int bufferSize) {
+            this.emitter = emitter;
+            this.venueId = venueId;
+            this.sportId = sportId;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        private boolean matches(SlotEventDTO event) {
+            return (venueId == null || venueId.equals(event.getVenueId()))
+                    && (sportId == null || sportId.equals(event.getSportId()));
+        }
+
+        private boolean hasWork() {
+            return !queue.isEmpty() || resetTo.get() >= 0 || heartbeatDue.get();
+        }
+    }
+}
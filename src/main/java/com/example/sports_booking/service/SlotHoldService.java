@@ -0,0 +1,244 @@
+package com.example.sports_booking.service;
+
+import com.example.sports_booking.config.ShardRouter;
+import com.example.sports_booking.dto.CreateHoldRequest;
+import com.example.sports_booking.dto.HoldTokenRequest;
+import com.example.sports_booking.dto.SlotHoldDTO;
+import com.example.sports_booking.entity.OutboxEventType;
+import com.example.sports_booking.entity.SlotStatus;
+import com.example.sports_booking.exception.ResourceNotFoundException;
+import com.example.sports_booking.exception.SlotUnavailableException;
+import com.example.sports_booking.repository.SlotRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Short-lived slot holds for checkouts with a payment step.
+ * <p>
+ * A hold flips the slot to {@link SlotStatus#HELD} with one guarded {@code UPDATE} and hands out a token;
+ * no lock is kept while the client pays. {@link BookingService#confirmHold} turns an unexpired hold into
+ * a booking. Expired holds are released by an in-process {@link HashedTimerWheel}, which only queues them; a
+ * release thread frees what has queued up with one transaction per shard, so database latency never delays the
+ * wheel's ticks. A periodic sweep, which also runs at startup, releases holds whose timers were lost to a
+ * restart or a failed release, or that were placed by another instance.
+ */
+@Slf4j
+@Service
+public class SlotHoldService {
+
+    /** Expired holds released per transaction by the release thread. */
+    static final int RELEASE_BATCH_SIZE = 500;
+
+    private final SlotRepository slotRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final HashedTimerWheel<Hold> expiryWheel;
+    private final SlotEventHub slotEvents;
+    private final ShardRouter shards;
+    private final OutboxService outbox;
+    private final Queue<Hold> expiredHolds = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean releasing = new AtomicBoolean();
+    private final ExecutorService releaser = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "slot-hold-release");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SlotHoldService(SlotRepository slotRepo,
+                           TransactionTemplate transactionTemplate,
+                           SlotEventHub slotEvents,
+                           ShardRouter shards,
+                           OutboxService outbox,
+                           @Value("${booking.hold.ttl:10m}") Duration ttl,
+                           @Value("${booking.hold.tick:1s}") Duration tick,
+                           @Value("${booking.hold.wheel-size:1024}") int wheelSize) {
+        this.slotRepo = slotRepo;
+        this.transactionTemplate = transactionTemplate;
+        this.slotEvents = slotEvents;
+        this.shards = shards;
+        this.outbox = outbox;
+        this.ttl = ttl;
+        this.expiryWheel = new HashedTimerWheel<>("slot-hold-expiry", tick, wheelSize, this::queueExpired);
+    }
+
+    @Transactional
+    public SlotHoldDTO hold(Long slotId, CreateHoldRequest request) {
+        log.info("Holding slot: {} for user: {}", slotId, request.getUserName());
+        shards.selectShardOf(slotId);
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(ttl);
+        String token = UUID.randomUUID().toString();
+
+        int held = slotRepo.placeHold(slotId, token, request.getUserName(), expiresAt, now,
+                SlotStatus.AVAILABLE, SlotStatus.HELD);
+        if (held == 0) {
+            if (!slotRepo.existsById(slotId)) {
+                throw new ResourceNotFoundException("Slot not found with id: " + slotId);
+            }
+            throw new SlotUnavailableException("Slot is not available");
+        }
+
+        outbox.recordSlots(OutboxEventType.SLOT_HELD, List.of(slotId));
+        slotEvents.publishAfterCommit(List.of(slotId));
+        Hold hold = new Hold(slotId, token, expiresAt);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                expiryWheel.schedule(hold, hold.expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            }
+        });
+
+        log.info("Slot {} held until {}", slotId, expiresAt);
+        return SlotHoldDTO.builder()
+                .slotId(slotId)
+                .holdToken(token)
+                .userName(request.getUserName())
+                .expiresAt(expiresAt)
+                .build();
+    }
+
+    /** Gives a hold back before it expires. */
+    @Transactional
+    public void release(Long slotId, HoldTokenRequest request) {
+        log.info("Releasing hold on slot: {}", slotId);
+        shards.selectShardOf(slotId);
+        LocalDateTime now = LocalDateTime.now();
+        int released = slotRepo.releaseHold(slotId, request.getHoldToken(), now, SlotStatus.HELD, SlotStatus.AVAILABLE);
+        if (released == 0) {
+            throw new ResourceNotFoundException("No active hold on slot " + slotId + " for this token");
+        }
+        outbox.recordSlots(OutboxEventType.SLOT_RELEASED, List.of(slotId));
+        slotEvents.publishAfterCommit(List.of(slotId));
+    }
+
+    @Scheduled(initialDelayString = "${booking.hold.sweep-initial-delay:PT0S}",
+               fixedDelayString = "${booking.hold.sweep-interval:PT1M}")
+    public void sweepExpired() {
+        try {
+            int released = shards.gather(shard -> transactionTemplate.execute(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                // Locked, so the timer wheel or a client cannot release one of them in between and have it
+                // reported twice; every locked row is released by the update below
+                List<Long> expired = slotRepo.lockExpiredHoldIds(now, SlotStatus.HELD);
+                if (expired.isEmpty()) {
+                    return 0;
+                }
+                int count = slotRepo.releaseExpiredHolds(expired, now, SlotStatus.HELD, SlotStatus.AVAILABLE);
+                outbox.recordSlots(OutboxEventType.SLOT_RELEASED, expired);
+                slotEvents.publishAfterCommit(expired);
+                return count;
+            })).stream().filter(Objects::nonNull).mapToInt(Integer::intValue).sum();
+            if (released > 0) {
+                log.info("Sweep released {} expired holds", released);
+            }
+        } catch (RuntimeException e) {
+            log.error("Expired hold sweep failed", e);
+        }
+    }
+
+    public int pendingExpiries() {
+        return expiryWheel.pending();
+    }
+
+    @PreDestroy
+    void stop() {
+        expiryWheel.close();
+        releaser.shutdownNow();
+    }
+
+    /** Runs on the wheel's tick thread, so it only hands the hold over to the release thread. */
+    private void queueExpired(Hold hold) {
+        expiredHolds.add(hold);
+        if (releasing.compareAndSet(false, true)) {
+            releaser.execute(this::releaseQueued);
+        }
+    }
+
+    private void releaseQueued() {
+        while (true) {
+            List<Hold> batch = new ArrayList<>();
+            Hold hold;
+            while (batch.size() < RELEASE_BATCH_SIZE && (hold = expiredHolds.poll()) != null) {
+                batch.add(hold);
+            }
+            if (batch.isEmpty()) {
+                releasing.set(false);
+                // A hold queued after the poll saw no release running; carry on with it unless it started one
+                if (expiredHolds.isEmpty() || !releasing.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            try {
+                releaseExpired(batch);
+            } catch (RuntimeException e) {
+                // The sweep releases them instead
+                log.error("Releasing {} expired holds failed", batch.size(), e);
+            }
+        }
+    }
+
+    private void releaseExpired(List<Hold> holds) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Integer, List<String>> tokensByShard = holds.stream().collect(Collectors.groupingBy(
+                hold -> shards.shardOf(hold.slotId), Collectors.mapping(hold -> hold.token, Collectors.toList())));
+        int released = 0;
+        for (Map.Entry<Integer, List<String>> shard : tokensByShard.entrySet()) {
+            Integer count = shards.onShard(shard.getKey(), () -> transactionTemplate.execute(status -> {
+                // Holds confirmed, released or replaced since their timer was set no longer match their token
+                List<Long> expired = slotRepo.lockExpiredHoldIdsByToken(shard.getValue(), now, SlotStatus.HELD);
+                if (expired.isEmpty()) {
+                    return 0;
+                }
+                int changed = slotRepo.releaseExpiredHolds(expired, now, SlotStatus.HELD, SlotStatus.AVAILABLE);
+                outbox.recordSlots(OutboxEventType.SLOT_RELEASED, expired);
+                slotEvents.publishAfterCommit(expired);
+                return changed;
+            }));
+            released += count == null ? 0 : count;
+        }
+        if (released > 0) {
+            log.info("Released {} expired holds", released);
+        }
+    }
+
+    private static final class Hold {
+        private final Long slotId;
+        private final String token;
+        private final LocalDateTime expiresAt;
+
+        private Hold(Long slotId, String token, LocalDateTime expiresAt) {
+            this.slotId = slotId;
+            this.token = token;
+            this.expiresAt = expiresAt;
+        }
+
+        @Override
+        public String toString() {
+            return "hold on slot " + slotId;
+        }
+    }
+}
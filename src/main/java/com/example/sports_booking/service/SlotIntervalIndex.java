@@ -0,0 +1,188 @@
+package com.example.sports_booking.service;
+
+import com.example.sports_booking.repository.SlotInterval;
+import com.example.sports_booking.repository.SlotRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory index of slot time ranges per venue, used as a fast pre-check for slot overlaps.
+ * <p>
+ * Slots of one venue never overlap, so ordering them by start time is enough to act as an interval tree:
+ * the only slot that can overlap {@code [start, end)} is the last one starting before {@code end}.
+ * A venue is loaded from the {@code slot} table the first time it is touched. All access to a venue
+ * happens under one of a fixed set of striped locks, which writers hold until their transaction
+ * completes, so concurrent inserts for the same venue are serialized and only committed rows are
+ * ever published. Other instances write slots this index never sees, so a range it finds free is checked
+ * against the table as well, under the venue row lock the caller holds; a venue the table contradicts is
+ * reloaded on its next use.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SlotIntervalIndex {
+
+    private static final int STRIPES = 64;
+
+    private final SlotRepository slotRepo;
+    private final ReentrantLock[] locks = createLocks();
+    private final ConcurrentMap<Long, NavigableMap<LocalDateTime, LocalDateTime>> venues = new ConcurrentHashMap<>();
+
+    /**
+     * Locks the venue until the current transaction completes and returns a handle for checking and
+     * recording slots. Recorded slots become visible to other writers only if the transaction commits.
+     * Callers must already hold the venue row lock and have read nothing else in the transaction, so that a
+     * venue loaded here sees every committed slot rather than a snapshot taken before their turn.
+     */
+    public VenueLock lockVenue(Long venueId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Venue lock requires an active transaction");
+        }
+        ReentrantLock lock = stripe(venueId);
+        lock.lock();
+        VenueLock venueLock = new VenueLock(venueId, lock);
+        TransactionSynchronizationManager.registerSynchronization(venueLock);
+        return venueLock;
+    }
+
+    /**
+     * Drops a venue from the index once the current transaction commits, e.g. after the venue is deleted.
+     */
+    public void evictAfterCommit(Long venueId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ReentrantLock lock = stripe(venueId);
+                lock.lock();
+                try {
+                    venues.remove(venueId);
+                } finally {
+                    lock.unlock();
+                }
+            }
+        });
+    }
+
+    private NavigableMap<LocalDateTime, LocalDateTime> intervals(Long venueId) {
+        NavigableMap<LocalDateTime, LocalDateTime> intervals = venues.get(venueId);
+        if (intervals == null) {
+            intervals = toMap(slotRepo.findIntervalsByVenueId(venueId));
+            log.debug("Loaded {} slot intervals for venue: {}", intervals.size(), venueId);
+            venues.put(venueId, intervals);
+        }
+        return intervals;
+    }
+
+    private static NavigableMap<LocalDateTime, LocalDateTime> toMap(List<SlotInterval> slots) {
+        NavigableMap<LocalDateTime, LocalDateTime> intervals = new TreeMap<>();
+        for (SlotInterval slot : slots) {
+            // Empty ranges cannot overlap anything
+            if (slot.getStartTime().isBefore(slot.getEndTime())) {
+                intervals.put(slot.getStartTime(), slot.getEndTime());
+            }
+        }
+        return intervals;
+    }
+
+    private static boolean overlaps(NavigableMap<LocalDateTime, LocalDateTime> intervals,
+                                    LocalDateTime startTime, LocalDateTime endTime) {
+        Map.Entry<LocalDateTime, LocalDateTime> candidate = intervals.lowerEntry(endTime);
+        return candidate != null && candidate.getValue().isAfter(startTime);
+    }
+
+    private ReentrantLock stripe(Long venueId) {
+        return locks[Math.floorMod(venueId.hashCode(), STRIPES)];
+    }
+
+    private static ReentrantLock[] createLocks() {
+        ReentrantLock[] locks = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+
+    public class VenueLock implements TransactionSynchronization {
+        private final Long venueId;
+        private final ReentrantLock lock;
+        private final NavigableMap<LocalDateTime, LocalDateTime> pending = new TreeMap<>();
+
+        private VenueLock(Long venueId, ReentrantLock lock) {
+            this.venueId = venueId;
+            this.lock = lock;
+        }
+
+        /**
+         * Whether {@code [startTime, endTime)} overlaps a committed slot or one recorded in this transaction.
+         */
+        public boolean overlaps(LocalDateTime startTime, LocalDateTime endTime) {
+            return firstOverlap(Collections.singletonList(new LocalDateTime[]{startTime, endTime})) != null;
+        }
+
+        /**
+         * Returns the first of the {@code [start, end)} ranges that overlaps a slot of the venue, or null if none
+         * does. The index answers first; ranges it finds free are checked with one query for the slots in the
+         * table between the earliest start and the latest end.
+         */
+        public LocalDateTime[] firstOverlap(List<LocalDateTime[]> ranges) {
+            NavigableMap<LocalDateTime, LocalDateTime> intervals = intervals(venueId);
+            LocalDateTime from = null;
+            LocalDateTime to = null;
+            for (LocalDateTime[] range : ranges) {
+                if (SlotIntervalIndex.overlaps(intervals, range[0], range[1])
+                        || SlotIntervalIndex.overlaps(pending, range[0], range[1])) {
+                    return range;
+                }
+                from = from == null || range[0].isBefore(from) ? range[0] : from;
+                to = to == null || range[1].isAfter(to) ? range[1] : to;
+            }
+            if (from == null) {
+                return null;
+            }
+            NavigableMap<LocalDateTime, LocalDateTime> stored = toMap(slotRepo.findOverlappingIntervals(venueId, from, to));
+            for (LocalDateTime[] range : ranges) {
+                if (SlotIntervalIndex.overlaps(stored, range[0], range[1])) {
+                    log.info("Slot intervals of venue {} were written elsewhere, reloading them on next use", venueId);
+                    venues.remove(venueId);
+                    return range;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Records a slot inserted in this transaction. Callers must have checked it with {@link #overlaps}.
+         */
+        public void recordInsert(LocalDateTime startTime, LocalDateTime endTime) {
+            pending.put(startTime, endTime);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            try {
+                if (status == STATUS_COMMITTED && !pending.isEmpty()) {
+                    NavigableMap<LocalDateTime, LocalDateTime> intervals = venues.get(venueId);
+                    // An unloaded venue will read these rows from the table on first use
+                    if (intervals != null) {
+                        intervals.putAll(pending);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -1,21 +1,36 @@
 package com.example.sports_booking.service;
 
+import com.example.sports_booking.config.ShardRouter;
 import com.example.sports_booking.dto.CreateSlotRequest;
+import com.example.sports_booking.dto.CreateSlotScheduleRequest;
+import com.example.sports_booking.dto.KeysetCursor;
+import com.example.sports_booking.dto.KeysetPage;
 import com.example.sports_booking.dto.SlotDTO;
+import com.example.sports_booking.dto.SlotScheduleSummaryDTO;
+import com.example.sports_booking.entity.OutboxEventType;
 import com.example.sports_booking.entity.Slot;
 import com.example.sports_booking.entity.SlotStatus;
 import com.example.sports_booking.entity.Venue;
 import com.example.sports_booking.exception.ResourceNotFoundException;
 import com.example.sports_booking.exception.SlotOverlapException;
+import com.example.sports_booking.repository.SlotJdbcRepository;
 import com.example.sports_booking.repository.SlotRepository;
+import com.example.sports_booking.repository.SlotSummary;
 import com.example.sports_booking.repository.VenueRepository;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -23,30 +38,41 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class SlotService {
 
+    public static final int MAX_SCHEDULE_DAYS = 366;
+    public static final int MAX_SCHEDULE_SLOTS = 20_000;
+    public static final int DEFAULT_LIMIT = 200;
+    public static final int MAX_LIMIT = 1000;
+
     private final SlotRepository repo;
+    private final SlotJdbcRepository jdbcRepo;
     private final VenueRepository venueRepo;
+    private final SlotIntervalIndex intervalIndex;
+    private final HotPathMetrics metrics;
+    private final SlotEventHub slotEvents;
+    private final ShardRouter shards;
+    private final OutboxService outbox;
 
     @Transactional
     public SlotDTO addSlot(Long venueId, CreateSlotRequest request) {
         log.info("Adding slot for venue: {}, start: {}, end: {}", 
                 venueId, request.getStartTime(), request.getEndTime());
+        shards.selectShardOf(venueId);
 
-        Venue venue = venueRepo.findById(venueId)
+        // Locked first, so the overlap check below reads every slot committed before this writer's turn
+        Venue venue = venueRepo.lockById(venueId)
                 .orElseThrow(() -> new ResourceNotFoundException("Venue not found with id: " + venueId));
 
         // Validate time range
-        if (request.getStartTime().isAfter(request.getEndTime())) {
+        if (!request.getStartTime().isBefore(request.getEndTime())) {
             throw new IllegalArgumentException("Start time must be before end time");
         }
 
-        // Check for overlapping slots
-        List<Slot> overlapping = repo.findOverlappingSlots(
-                venueId,
-                request.getStartTime(),
-                request.getEndTime()
-        );
-
-        if (!overlapping.isEmpty()) {
+        // Check for overlapping slots; the venue stays locked until this transaction completes
+        Timer.Sample overlapCheck = metrics.startSample();
+        SlotIntervalIndex.VenueLock venueLock = intervalIndex.lockVenue(venueId);
+        boolean overlaps = venueLock.overlaps(request.getStartTime(), request.getEndTime());
+        overlapCheck.stop(metrics.overlapCheck(overlaps));
+        if (overlaps) {
             log.warn("Slot overlap detected for venue: {}", venueId);
             throw new SlotOverlapException(
                     "Slot overlaps with existing slots for venue: " + venue.getName()
@@ -61,25 +87,103 @@ public class SlotService {
                 .build();
 
         Slot saved = repo.save(slot);
+        shards.checkGenerated(saved.getId());
+        venueLock.recordInsert(saved.getStartTime(), saved.getEndTime());
+        outbox.recordSlots(OutboxEventType.SLOT_CREATED, venueId, List.of(saved.getId()));
+        slotEvents.publishAfterCommit(List.of(saved.getId()));
         return toDTO(saved);
     }
 
+    /**
+     * Expands a recurring schedule into slots and inserts them all or none. Overlaps are checked for the
+     * whole batch under a single venue lock and rows are written with JDBC batching.
+     */
+    @Transactional
+    public SlotScheduleSummaryDTO addSchedule(Long venueId, CreateSlotScheduleRequest request) {
+        log.info("Adding slot schedule for venue: {}, dates: {} to {}, daily: {} to {}, every {} min",
+                venueId, request.getStartDate(), request.getEndDate(),
+                request.getDailyStartTime(), request.getDailyEndTime(), request.getSlotMinutes());
+        shards.selectShardOf(venueId);
+
+        // Locked first, so the overlap check below reads every slot committed before this writer's turn
+        Venue venue = venueRepo.lockById(venueId)
+                .orElseThrow(() -> new ResourceNotFoundException("Venue not found with id: " + venueId));
+
+        List<LocalDateTime[]> ranges = expandSchedule(request);
+        if (ranges.isEmpty()) {
+            throw new IllegalArgumentException("Schedule does not produce any slots");
+        }
+
+        SlotIntervalIndex.VenueLock venueLock = intervalIndex.lockVenue(venueId);
+        LocalDateTime[] overlap = venueLock.firstOverlap(ranges);
+        if (overlap != null) {
+            log.warn("Schedule overlap detected for venue: {} at {}", venueId, overlap[0]);
+            throw new SlotOverlapException(
+                    "Schedule slot starting " + overlap[0] + " overlaps with existing slots for venue: " + venue.getName()
+            );
+        }
+
+        List<Long> slotIds = jdbcRepo.batchInsert(venueId, ranges, SlotStatus.AVAILABLE);
+        shards.checkGenerated(slotIds.get(0));
+        ranges.forEach(range -> venueLock.recordInsert(range[0], range[1]));
+        outbox.recordSlots(OutboxEventType.SLOT_CREATED, venueId, slotIds);
+        slotEvents.publishAfterCommit(slotIds);
+
+        int days = (int) ranges.stream().map(range -> range[0].toLocalDate()).distinct().count();
+        log.info("Created {} slots over {} days for venue: {}", ranges.size(), days, venueId);
+        return SlotScheduleSummaryDTO.builder()
+                .venueId(venueId)
+                .daysScheduled(days)
+                .slotsCreated(ranges.size())
+                .firstSlotStart(ranges.get(0)[0])
+                .lastSlotEnd(ranges.get(ranges.size() - 1)[1])
+                .build();
+    }
+
+    /**
+     * Returns one page of a venue's slots in time order, optionally limited to a start time window and a status.
+     * The venue is read once and rows are fetched as projections, so no venue is loaded per slot.
+     */
     @Transactional(readOnly = true)
-    public List<SlotDTO> getByVenueId(Long venueId) {
-        log.info("Fetching slots for venue: {}", venueId);
-        return repo.findAll().stream()
-                .filter(s -> s.getVenue().getId().equals(venueId))
-                .map(this::toDTO)
+    public KeysetPage<SlotDTO> getByVenueId(Long venueId, LocalDateTime from, LocalDateTime to, SlotStatus status,
+                                            String cursor, int limit) {
+        log.info("Fetching slots for venue: {}, from: {}, to: {}, status: {}, cursor: {}, limit: {}",
+                venueId, from, to, status, cursor, limit);
+
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        int pageSize = Math.min(limit, MAX_LIMIT);
+        shards.selectShardOf(venueId);
+        Venue venue = venueRepo.findById(venueId)
+                .orElseThrow(() -> new ResourceNotFoundException("Venue not found with id: " + venueId));
+        KeysetCursor after = cursor != null ? KeysetCursor.decode(cursor) : null;
+
+        List<SlotDTO> rows = repo.findVenueSchedule(venueId, from, to, status,
+                        after != null ? after.getTime() : null, after != null ? after.getId() : null,
+                        PageRequest.ofSize(pageSize + 1))
+                .stream()
+                .map(slot -> toDTO(venue, slot))
                 .collect(Collectors.toList());
+
+        if (rows.size() <= pageSize) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<SlotDTO> page = rows.subList(0, pageSize);
+        SlotDTO last = page.get(pageSize - 1);
+        return new KeysetPage<>(page, new KeysetCursor(last.getStartTime(), last.getId()).encode());
     }
 
     @Transactional(readOnly = true)
     public List<SlotDTO> getAvailableSlots(Long venueId, LocalDateTime startTime, LocalDateTime endTime) {
         log.info("Fetching available slots for venue: {}, start: {}, end: {}", 
                 venueId, startTime, endTime);
+        shards.selectShardOf(venueId);
+        Venue venue = venueRepo.findById(venueId)
+                .orElseThrow(() -> new ResourceNotFoundException("Venue not found with id: " + venueId));
         return repo.findAvailableSlots(venueId, startTime, endTime, SlotStatus.AVAILABLE)
                 .stream()
-                .map(this::toDTO)
+                .map(slot -> toDTO(venue, slot))
                 .collect(Collectors.toList());
     }
 
@@ -96,4 +200,52 @@ public class SlotService {
                 .updatedAt(slot.getUpdatedAt())
                 .build();
     }
+
+    private SlotDTO toDTO(Venue venue, SlotSummary slot) {
+        return SlotDTO.builder()
+                .id(slot.getId())
+                .venueId(venue.getId())
+                .venueName(venue.getName())
+                .sportId(venue.getSportId())
+                .startTime(slot.getStartTime())
+                .endTime(slot.getEndTime())
+                .status(slot.getStatus().toString())
+                .createdAt(slot.getCreatedAt())
+                .updatedAt(slot.getUpdatedAt())
+                .build();
+    }
+
+    private List<LocalDateTime[]> expandSchedule(CreateSlotScheduleRequest request) {
+        if (request.getEndDate().isBefore(request.getStartDate())) {
+            throw new IllegalArgumentException("endDate must not be before startDate");
+        }
+        if (ChronoUnit.DAYS.between(request.getStartDate(), request.getEndDate()) >= MAX_SCHEDULE_DAYS) {
+            throw new IllegalArgumentException("Schedule may span at most " + MAX_SCHEDULE_DAYS + " days");
+        }
+        if (!request.getDailyStartTime().isBefore(request.getDailyEndTime())) {
+            throw new IllegalArgumentException("dailyStartTime must be before dailyEndTime");
+        }
+
+        Set<LocalDate> excluded = request.getExcludedDates() != null
+                ? new HashSet<>(request.getExcludedDates()) : Set.of();
+        List<LocalDateTime[]> ranges = new ArrayList<>();
+        for (LocalDate date = request.getStartDate(); !date.isAfter(request.getEndDate()); date = date.plusDays(1)) {
+            if (excluded.contains(date) || (request.getDaysOfWeek() != null && !request.getDaysOfWeek().isEmpty()
+                    && !request.getDaysOfWeek().contains(date.getDayOfWeek()))) {
+                continue;
+            }
+            LocalDateTime dayEnd = date.atTime(request.getDailyEndTime());
+            LocalDateTime start = date.atTime(request.getDailyStartTime());
+            // A trailing remainder shorter than slotMinutes is left unscheduled
+            while (!start.plusMinutes(request.getSlotMinutes()).isAfter(dayEnd)) {
+                LocalDateTime end = start.plusMinutes(request.getSlotMinutes());
+                ranges.add(new LocalDateTime[]{start, end});
+                if (ranges.size() > MAX_SCHEDULE_SLOTS) {
+                    throw new IllegalArgumentException("Schedule may create at most " + MAX_SCHEDULE_SLOTS + " slots");
+                }
+                start = end;
+            }
+        }
+        return ranges;
+    }
 }
@@ -0,0 +1,14 @@
+package com.example.sports_booking.service;
+
+import com.example.sports_booking.repository.SlotStatusView;
+
+import java.util.List;
+
+/**
+ * Receives committed slot status changes from {@link SlotEventHub}, one call at a time and in commit order
+ * per slot. Implementations are called on the committing thread and must not block.
+ */
+public interface SlotStatusListener {
+
+    void onSlotStatusChanged(List<SlotStatusView> changes);
+}
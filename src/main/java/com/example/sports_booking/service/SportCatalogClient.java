@@ -0,0 +1,112 @@
+package com.example.sports_booking.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fetches the sport catalog from the upstream sports list API.
+ * <p>
+ * Every successful fetch is written to a local snapshot file, which is served instead when the upstream
+ * cannot be reached, so a node that restarts during an upstream outage still gets a catalog.
+ */
+@Slf4j
+@Component
+public class SportCatalogClient {
+
+    private static final TypeReference<Map<String, Object>> RESPONSE_TYPE = new TypeReference<>() {
+    };
+
+    private final RestTemplate rest;
+    private final ObjectMapper objectMapper;
+    private final String url;
+    private final Path snapshotFile;
+
+    public SportCatalogClient(RestTemplateBuilder restTemplateBuilder,
+                              ObjectMapper objectMapper,
+                              @Value("${sports.sync.url:https://stapubox.com/sportslist/}") String url,
+                              @Value("${sports.sync.connect-timeout:2s}") Duration connectTimeout,
+                              @Value("${sports.sync.read-timeout:5s}") Duration readTimeout,
+                              @Value("${sports.sync.snapshot-file:data/sports-snapshot.json}") Path snapshotFile) {
+        this.rest = restTemplateBuilder
+                .connectTimeout(connectTimeout)
+                .readTimeout(readTimeout)
+                .build();
+        this.objectMapper = objectMapper;
+        this.url = url;
+        this.snapshotFile = snapshotFile;
+    }
+
+    /**
+     * Returns sport names keyed by sport id, from the upstream if possible and from the snapshot otherwise.
+     *
+     * @throws IllegalStateException if the upstream is unreachable and there is no usable snapshot
+     */
+    public Catalog fetch() {
+        try {
+            String body = rest.getForObject(url, String.class);
+            Map<String, String> sports = parse(body);
+            writeSnapshot(body);
+            return new Catalog(sports, Source.REMOTE);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Sport catalog upstream unavailable, falling back to snapshot {}: {}", snapshotFile, e.getMessage());
+        }
+        try {
+            return new Catalog(parse(Files.readString(snapshotFile)), Source.SNAPSHOT);
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalStateException("Sport catalog unavailable and no usable snapshot at " + snapshotFile, e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, String> parse(String body) throws IOException {
+        Map<String, Object> response = objectMapper.readValue(body, RESPONSE_TYPE);
+        List<Map<String, Object>> data = (List<Map<String, Object>>) response.get("data");
+        if (data == null) {
+            throw new IOException("Sport catalog response has no data");
+        }
+        Map<String, String> sports = new LinkedHashMap<>();
+        for (Map<String, Object> sport : data) {
+            sports.put(String.valueOf(sport.get("sport_id")), String.valueOf(sport.get("sport_name")));
+        }
+        return sports;
+    }
+
+    private void writeSnapshot(String body) {
+        try {
+            Path dir = snapshotFile.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, "sports", ".tmp");
+            Files.writeString(tmp, body);
+            Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not write sport catalog snapshot {}: {}", snapshotFile, e.getMessage());
+        }
+    }
+
+    public enum Source {
+        REMOTE, SNAPSHOT
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Catalog {
+        private final Map<String, String> sports;
+        private final Source source;
+    }
+}
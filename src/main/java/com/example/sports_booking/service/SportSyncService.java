@@ -1,45 +1,146 @@
 package com.example.sports_booking.service;
 
+import com.example.sports_booking.dto.SportSyncResultDTO;
 import com.example.sports_booking.entity.Sport;
+import com.example.sports_booking.repository.SportJdbcRepository;
 import com.example.sports_booking.repository.SportRepository;
-import jakarta.annotation.PostConstruct;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
+/**
+ * Keeps the {@code sport} table in line with the upstream catalog on a schedule, off the startup path.
+ * Each run loads the local table once, diffs it against the remote list and writes only new or renamed
+ * sports as a single batched upsert. Sports missing upstream are kept, since venues may still refer to them.
+ * Runs are timed by where the catalog came from, and the time of the last successful run is published so a
+ * failing or stale sync shows up on the dashboards.
+ */
+@Slf4j
 @Service
-@RequiredArgsConstructor
+@ConditionalOnProperty(name = "sports.sync.enabled", havingValue = "true", matchIfMissing = true)
 public class SportSyncService {
 
     private final SportRepository repo;
-    private final RestTemplate rest = new RestTemplate();
+    private final SportJdbcRepository jdbcRepo;
+    private final SportCatalogClient client;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<SportCatalogClient.Source, Timer> runs = new EnumMap<>(SportCatalogClient.Source.class);
+    private final Timer failedRuns;
+    private final Counter insertedSports;
+    private final Counter renamedSports;
+    private final AtomicLong catalogSize = new AtomicLong();
+    private final AtomicLong lastSuccess = new AtomicLong();
 
-    @PostConstruct
-    @SuppressWarnings("unchecked")
-    public void sync() {
+    public SportSyncService(SportRepository repo,
+                            SportJdbcRepository jdbcRepo,
+                            SportCatalogClient client,
+                            TransactionTemplate transactionTemplate,
+                            MeterRegistry registry) {
+        this.repo = repo;
+        this.jdbcRepo = jdbcRepo;
+        this.client = client;
+        this.transactionTemplate = transactionTemplate;
+        for (SportCatalogClient.Source source : SportCatalogClient.Source.values()) {
+            runs.put(source, run(registry, source.name().toLowerCase(Locale.ROOT)));
+        }
+        this.failedRuns = run(registry, "failed");
+        this.insertedSports = changes(registry, "inserted");
+        this.renamedSports = changes(registry, "renamed");
+        Gauge.builder("sports.sync.catalog.size", catalogSize, AtomicLong::get)
+                .description("Sports in the catalog fetched by the last successful sync")
+                .register(registry);
+        Gauge.builder("sports.sync.last.success", lastSuccess, AtomicLong::get)
+                .description("Epoch second at which the last successful sport sync finished")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    @Scheduled(initialDelayString = "${sports.sync.initial-delay:PT10S}",
+               fixedDelayString = "${sports.sync.interval:PT6H}")
+    public void scheduledSync() {
         try {
-            String url = "https://stapubox.com/sportslist/";
-            Map<String, Object> response = rest.getForObject(url, Map.class);
-
-            List<Map<String, Object>> sports =
-                    (List<Map<String, Object>>) response.get("data");
-
-            for (var s : sports) {
-                String sportId = String.valueOf(s.get("sport_id"));
-                repo.findBySportId(sportId)
-                        .orElseGet(() -> {
-                            Sport sp = new Sport();
-                            sp.setSportId(sportId);
-                            sp.setSportName(s.get("sport_name").toString());
-                            return repo.save(sp);
-                        });
+            sync();
+        } catch (RuntimeException e) {
+            log.error("Sport sync failed", e);
+        }
+    }
+
+    public SportSyncResultDTO sync() {
+        long started = System.nanoTime();
+        SportSyncResultDTO result;
+        try {
+            result = diffAndUpsert(client.fetch(), started);
+        } catch (RuntimeException e) {
+            failedRuns.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+        log.info("Sport sync finished - source: {}, fetched: {}, inserted: {}, renamed: {}, took {} ms",
+                result.getSource(), result.getFetched(), result.getInserted(), result.getRenamed(),
+                result.getDurationMillis());
+        return result;
+    }
+
+    private SportSyncResultDTO diffAndUpsert(SportCatalogClient.Catalog catalog, long started) {
+        Map<String, String> local = repo.findAll().stream()
+                .collect(Collectors.toMap(Sport::getSportId, Sport::getSportName));
+        Map<String, String> changes = new LinkedHashMap<>();
+        int inserted = 0;
+        for (Map.Entry<String, String> sport : catalog.getSports().entrySet()) {
+            String current = local.get(sport.getKey());
+            if (current == null) {
+                inserted++;
+            }
+            if (!sport.getValue().equals(current)) {
+                changes.put(sport.getKey(), sport.getValue());
             }
-        } catch (Exception e) {
-            // Silently fail - API might be unavailable on startup
-            // Log can be added if needed
         }
+
+        if (!changes.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> jdbcRepo.upsert(changes));
+        }
+
+        long took = System.nanoTime() - started;
+        runs.get(catalog.getSource()).record(took, TimeUnit.NANOSECONDS);
+        insertedSports.increment(inserted);
+        renamedSports.increment(changes.size() - inserted);
+        catalogSize.set(catalog.getSports().size());
+        lastSuccess.set(System.currentTimeMillis() / 1000);
+        return SportSyncResultDTO.builder()
+                .source(catalog.getSource().name())
+                .fetched(catalog.getSports().size())
+                .inserted(inserted)
+                .renamed(changes.size() - inserted)
+                .durationMillis(took / 1_000_000)
+                .finishedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static Timer run(MeterRegistry registry, String outcome) {
+        return Timer.builder("sports.sync")
+                .description("Sport catalog sync runs, by where the catalog came from")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private static Counter changes(MeterRegistry registry, String kind) {
+        return Counter.builder("sports.sync.changes")
+                .description("Sports inserted or renamed by the catalog sync")
+                .tag("kind", kind)
+                .register(registry);
     }
 }
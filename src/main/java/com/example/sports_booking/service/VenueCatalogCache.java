@@ -0,0 +1,151 @@
+package com.example.sports_booking.service;
+
+import com.example.sports_booking.dto.CacheStatsDTO;
+import com.example.sports_booking.dto.VenueDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded read-through cache of venue reads, with entries evicted by size (least recently used) and age.
+ * <p>
+ * Venues are cached by id, per sport and as the full list. Writers invalidate after commit; every
+ * invalidation also bumps a generation counter, and a load only populates the cache if no invalidation
+ * happened while it was reading, so a read racing a write cannot leave stale data behind.
+ */
+@Component
+public class VenueCatalogCache {
+
+    private static final String ALL = "*";
+
+    private final Duration ttl;
+    private final Region<Long, VenueDTO> byId;
+    private final Region<String, List<VenueDTO>> lists;
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public VenueCatalogCache(@Value("${venue.cache.max-size:10000}") int maxSize,
+                             @Value("${venue.cache.max-lists:256}") int maxLists,
+                             @Value("${venue.cache.ttl:5m}") Duration ttl) {
+        this.ttl = ttl;
+        this.byId = new Region<>(maxSize);
+        this.lists = new Region<>(maxLists);
+    }
+
+    public VenueDTO getById(Long id, Supplier<VenueDTO> loader) {
+        return read(byId, id, loader);
+    }
+
+    public List<VenueDTO> getBySportId(String sportId, Supplier<List<VenueDTO>> loader) {
+        return read(lists, sportId, loader);
+    }
+
+    public List<VenueDTO> getAll(Supplier<List<VenueDTO>> loader) {
+        return read(lists, ALL, loader);
+    }
+
+    /**
+     * Drops everything derived from the given venue once the current transaction commits.
+     */
+    public void invalidateAfterCommit(Long venueId, String sportId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                generation.incrementAndGet();
+                if (venueId != null) {
+                    byId.remove(venueId);
+                }
+                lists.remove(sportId);
+                lists.remove(ALL);
+            }
+        });
+    }
+
+    public CacheStatsDTO stats() {
+        return CacheStatsDTO.builder()
+                .hits(hits.sum())
+                .misses(misses.sum())
+                .evictions(evictions.sum())
+                .size(byId.size() + lists.size())
+                .build();
+    }
+
+    private <K, V> V read(Region<K, V> region, K key, Supplier<V> loader) {
+        V cached = region.get(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        long loadedGeneration = generation.get();
+        V loaded = loader.get();
+        region.putIfCurrent(key, loaded, loadedGeneration);
+        return loaded;
+    }
+
+    private final class Region<K, V> {
+        private final Map<K, Cached<V>> entries;
+
+        private Region(int maxSize) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, Cached<V>> eldest) {
+                    if (size() > maxSize) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        synchronized V get(K key) {
+            Cached<V> entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.loadedAt > ttl.toNanos()) {
+                entries.remove(key);
+                evictions.increment();
+                return null;
+            }
+            return entry.value;
+        }
+
+        synchronized void putIfCurrent(K key, V value, long loadedGeneration) {
+            // Checked under the region lock so an invalidation cannot slip in between the check and the put
+            if (generation.get() == loadedGeneration) {
+                entries.put(key, new Cached<>(value, System.nanoTime()));
+            }
+        }
+
+        synchronized void remove(K key) {
+            entries.remove(key);
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+
+    private static final class Cached<V> {
+        private final V value;
+        private final long loadedAt;
+
+        private Cached(V value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
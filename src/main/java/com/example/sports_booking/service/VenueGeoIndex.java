@@ -0,0 +1,231 @@
+package com.example.sports_booking.service;
+
+import com.example.sports_booking.config.ShardRouter;
+import com.example.sports_booking.dto.GeoRadius;
+import com.example.sports_booking.repository.VenueLocationView;
+import com.example.sports_booking.repository.VenueRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory grid of venue coordinates for radius searches without a database round trip.
+ * <p>
+ * The globe is cut into cells of roughly {@code venue.geo.cell-km} along each side (measured at the equator),
+ * keyed by their latitude and longitude row. A search visits only the cells overlapping the circle's bounding
+ * box and measures the great-circle distance to each venue in them. The index is loaded after startup and
+ * updated after commit when venues are created or deleted; it assumes venue writes go through this node.
+ */
+@Slf4j
+@Component
+public class VenueGeoIndex {
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+
+    private final VenueRepository venueRepo;
+    private final ShardRouter shards;
+    private final double maxRadiusKm;
+    private final double cellDegrees;
+    private final int latRows;
+    private final int lonColumns;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ConcurrentMap<Long, Located> venues = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+
+    public VenueGeoIndex(VenueRepository venueRepo,
+                         ShardRouter shards,
+                         @Value("${venue.geo.cell-km:5}") double cellKm,
+                         @Value("${venue.geo.max-radius-km:100}") double maxRadiusKm) {
+        if (cellKm <= 0) {
+            throw new IllegalArgumentException("venue.geo.cell-km must be positive, got " + cellKm);
+        }
+        this.venueRepo = venueRepo;
+        this.shards = shards;
+        this.maxRadiusKm = maxRadiusKm;
+        // Whole columns around the globe, so a search crossing the antimeridian wraps onto the right cells
+        this.lonColumns = (int) Math.ceil(360 / (cellKm / KM_PER_DEGREE));
+        this.cellDegrees = 360.0 / lonColumns;
+        this.latRows = (int) Math.ceil(180 / cellDegrees);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<List<VenueLocationView>> located = shards.gather(shard -> venueRepo.findLocated());
+        writeLock.lock();
+        try {
+            located.stream().flatMap(List::stream).forEach(venue -> put(venue.getId(), venue.getSportId(), venue.getLatitude(), venue.getLongitude()));
+        } finally {
+            writeLock.unlock();
+        }
+        log.info("Venue geo index loaded: {} venues in {} cells", venues.size(), cells.size());
+    }
+
+    /**
+     * Adds a venue once the current transaction commits; venues without coordinates are ignored.
+     */
+    public void addAfterCommit(Long venueId, String sportId, Double latitude, Double longitude) {
+        if (latitude == null || longitude == null) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                writeLock.lock();
+                try {
+                    put(venueId, sportId, latitude, longitude);
+                } finally {
+                    writeLock.unlock();
+                }
+            }
+        });
+    }
+
+    /**
+     * Drops a venue from the index once the current transaction commits, e.g. after the venue is deleted.
+     */
+    public void evictAfterCommit(Long venueId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                writeLock.lock();
+                try {
+                    Located venue = venues.remove(venueId);
+                    Set<Long> cell = venue != null ? cells.get(venue.cell) : null;
+                    if (cell != null) {
+                        cell.remove(venueId);
+                        if (cell.isEmpty()) {
+                            cells.remove(venue.cell);
+                        }
+                    }
+                } finally {
+                    writeLock.unlock();
+                }
+            }
+        });
+    }
+
+    /**
+     * Checks a search circle from a request and returns the venues in it, as {@link #findWithin(double, double,
+     * double, String, int)} does.
+     */
+    public Map<Long, Double> findWithin(GeoRadius area, String sportId, int limit) {
+        if (area.getLatitude() == null || area.getLongitude() == null || area.getRadiusKm() == null) {
+            throw new IllegalArgumentException("latitude, longitude and radiusKm must be given together");
+        }
+        if (Math.abs(area.getLatitude()) > 90 || Math.abs(area.getLongitude()) > 180) {
+            throw new IllegalArgumentException("latitude must be between -90 and 90 and longitude between -180 and 180");
+        }
+        if (area.getRadiusKm() <= 0 || area.getRadiusKm() > maxRadiusKm) {
+            throw new IllegalArgumentException("radiusKm must be positive and at most " + maxRadiusKm);
+        }
+        return findWithin(area.getLatitude(), area.getLongitude(), area.getRadiusKm(), sportId, limit);
+    }
+
+    /**
+     * Venues within {@code radiusKm} of the given point, optionally of one sport, mapped to their distance in
+     * kilometres and ordered nearest first. At most {@code limit} venues are returned.
+     */
+    public Map<Long, Double> findWithin(double latitude, double longitude, double radiusKm, String sportId, int limit) {
+        double latSpan = radiusKm / KM_PER_DEGREE;
+        int fromRow = row(Math.max(-90, latitude - latSpan));
+        int toRow = row(Math.min(90, latitude + latSpan));
+
+        // Longitude degrees shrink towards the poles; near them, or for huge radii, every column is visited
+        double widest = Math.max(Math.abs(latitude - latSpan), Math.abs(latitude + latSpan));
+        double lonSpan = widest >= 90 ? 180 : latSpan / Math.cos(Math.toRadians(widest));
+        // May run past either end of the grid when crossing the antimeridian; wrapped below
+        int fromColumn = column(longitude - Math.min(lonSpan, 180));
+        int toColumn = column(longitude + Math.min(lonSpan, 180));
+        if (toColumn - fromColumn >= lonColumns) {
+            fromColumn = 0;
+            toColumn = lonColumns - 1;
+        }
+
+        List<Map.Entry<Long, Double>> matches = new ArrayList<>();
+        for (int row = fromRow; row <= toRow; row++) {
+            for (int column = fromColumn; column <= toColumn; column++) {
+                Set<Long> cell = cells.get(key(row, Math.floorMod(column, lonColumns)));
+                if (cell == null) {
+                    continue;
+                }
+                for (Long venueId : cell) {
+                    Located venue = venues.get(venueId);
+                    if (venue == null || (sportId != null && !sportId.isEmpty() && !sportId.equals(venue.sportId))) {
+                        continue;
+                    }
+                    double distance = distanceKm(latitude, longitude, venue.latitude, venue.longitude);
+                    if (distance <= radiusKm) {
+                        matches.add(Map.entry(venueId, distance));
+                    }
+                }
+            }
+        }
+
+        matches.sort(Map.Entry.<Long, Double>comparingByValue().thenComparing(Map.Entry.comparingByKey(Comparator.naturalOrder())));
+        Map<Long, Double> nearest = new LinkedHashMap<>();
+        for (Map.Entry<Long, Double> match : matches.subList(0, Math.min(limit, matches.size()))) {
+            nearest.put(match.getKey(), match.getValue());
+        }
+        return nearest;
+    }
+
+    /** Haversine distance; accurate to well under 1% at city scale. */
+    static double distanceKm(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude) {
+        double dLat = Math.toRadians(toLatitude - fromLatitude);
+        double dLon = Math.toRadians(toLongitude - fromLongitude);
+        double a = Math.pow(Math.sin(dLat / 2), 2)
+                + Math.cos(Math.toRadians(fromLatitude)) * Math.cos(Math.toRadians(toLatitude)) * Math.pow(Math.sin(dLon / 2), 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /** Only called under the write lock. */
+    private void put(Long venueId, String sportId, double latitude, double longitude) {
+        long cell = key(row(latitude), Math.floorMod(column(longitude), lonColumns));
+        Located previous = venues.put(venueId, new Located(sportId, latitude, longitude, cell));
+        if (previous != null && previous.cell != cell && cells.containsKey(previous.cell)) {
+            cells.get(previous.cell).remove(venueId);
+        }
+        cells.computeIfAbsent(cell, key -> ConcurrentHashMap.newKeySet()).add(venueId);
+    }
+
+    private int row(double latitude) {
+        return Math.min(latRows - 1, (int) Math.floor((latitude + 90) / cellDegrees));
+    }
+
+    private int column(double longitude) {
+        return (int) Math.floor((longitude + 180) / cellDegrees);
+    }
+
+    private static long key(int row, int column) {
+        return ((long) row << 32) | column;
+    }
+
+    private static final class Located {
+        private final String sportId;
+        private final double latitude;
+        private final double longitude;
+        private final long cell;
+
+        private Located(String sportId, double latitude, double longitude, long cell) {
+            this.sportId = sportId;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.cell = cell;
+        }
+    }
+}
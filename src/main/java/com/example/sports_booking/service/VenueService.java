@@ -1,6 +1,10 @@
 package com.example.sports_booking.service;
 
+import com.example.sports_booking.config.ShardRouter;
+import com.example.sports_booking.dto.CacheStatsDTO;
 import com.example.sports_booking.dto.CreateVenueRequest;
+import com.example.sports_booking.dto.GeoRadius;
+import com.example.sports_booking.dto.NearbyVenueDTO;
 import com.example.sports_booking.dto.VenueDTO;
 import com.example.sports_booking.entity.Venue;
 import com.example.sports_booking.exception.ResourceNotFoundException;
@@ -9,8 +13,12 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -18,51 +26,102 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class VenueService {
 
+    public static final int DEFAULT_NEARBY_LIMIT = 50;
+    public static final int MAX_NEARBY_LIMIT = 500;
+    private static final Comparator<VenueDTO> ID_ORDER = Comparator.comparing(VenueDTO::getId);
+
     private final VenueRepository repo;
+    private final SlotIntervalIndex slotIntervalIndex;
+    private final SlotAvailabilityIndex availabilityIndex;
+    private final VenueCatalogCache cache;
+    private final VenueGeoIndex geoIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shards;
 
     @Transactional
     public VenueDTO create(CreateVenueRequest request) {
         log.info("Creating venue: {}", request.getName());
+        if ((request.getLatitude() == null) != (request.getLongitude() == null)) {
+            throw new IllegalArgumentException("latitude and longitude must be given together");
+        }
+        shards.select(shards.nextVenueShard());
         Venue venue = Venue.builder()
                 .name(request.getName())
                 .location(request.getLocation())
                 .sportId(request.getSportId())
+                .latitude(request.getLatitude())
+                .longitude(request.getLongitude())
                 .build();
         Venue saved = repo.save(venue);
+        shards.checkGenerated(saved.getId());
+        cache.invalidateAfterCommit(null, saved.getSportId());
+        geoIndex.addAfterCommit(saved.getId(), saved.getSportId(), saved.getLatitude(), saved.getLongitude());
         return toDTO(saved);
     }
 
-    @Transactional(readOnly = true)
+    // Cached reads are not transactional so that a cache hit never checks out a connection.
+    // A miss loads in a read-write transaction so it reads the primary: a lagging replica read right after
+    // the write that invalidated the entry would otherwise stay cached until the entry expires
     public List<VenueDTO> list() {
         log.info("Listing all venues");
-        return repo.findAll().stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return cache.getAll(() -> shards.gatherMerged(ID_ORDER, Integer.MAX_VALUE, shard ->
+                transactionTemplate.execute(status -> repo.findAll().stream()
+                        .map(this::toDTO)
+                        .collect(Collectors.toList()))));
     }
 
-    @Transactional(readOnly = true)
     public VenueDTO getById(Long id) {
         log.info("Fetching venue with id: {}", id);
-        Venue venue = repo.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Venue not found with id: " + id));
-        return toDTO(venue);
+        return cache.getById(id, () -> shards.onShard(shards.shardOf(id), () ->
+                transactionTemplate.execute(status -> repo.findById(id)
+                        .map(this::toDTO)
+                        .orElseThrow(() -> new ResourceNotFoundException("Venue not found with id: " + id)))));
     }
 
-    @Transactional(readOnly = true)
     public List<VenueDTO> getBySportId(String sportId) {
         log.info("Fetching venues for sport: {}", sportId);
-        return repo.findBySportId(sportId).stream()
-                .map(this::toDTO)
+        return cache.getBySportId(sportId, () -> shards.gatherMerged(ID_ORDER, Integer.MAX_VALUE, shard ->
+                transactionTemplate.execute(status -> repo.findBySportId(sportId).stream()
+                        .map(this::toDTO)
+                        .collect(Collectors.toList()))));
+    }
+
+    /**
+     * Venues within the given circle, nearest first. Only the matching venues are read from the database.
+     */
+    public List<NearbyVenueDTO> findNearby(GeoRadius area, String sportId, int limit) {
+        log.info("Finding venues near {}, {} within {} km - sportId: {}, limit: {}",
+                area.getLatitude(), area.getLongitude(), area.getRadiusKm(), sportId, limit);
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        Map<Long, Double> nearby = geoIndex.findWithin(area, sportId, Math.min(limit, MAX_NEARBY_LIMIT));
+        if (nearby.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Venue> venues = shards.gather(nearby.keySet(), (shard, ids) -> repo.findAllById(ids)).stream()
+                .collect(Collectors.toMap(Venue::getId, Function.identity()));
+        return nearby.entrySet().stream()
+                .filter(match -> venues.containsKey(match.getKey()))
+                .map(match -> toNearbyDTO(venues.get(match.getKey()), match.getValue()))
                 .collect(Collectors.toList());
     }
 
     @Transactional
     public void delete(Long id) {
         log.info("Deleting venue with id: {}", id);
-        if (!repo.existsById(id)) {
-            throw new ResourceNotFoundException("Venue not found with id: " + id);
-        }
-        repo.deleteById(id);
+        shards.selectShardOf(id);
+        Venue venue = repo.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Venue not found with id: " + id));
+        repo.delete(venue);
+        slotIntervalIndex.evictAfterCommit(id);
+        availabilityIndex.evictAfterCommit(id);
+        geoIndex.evictAfterCommit(id);
+        cache.invalidateAfterCommit(id, venue.getSportId());
+    }
+
+    public CacheStatsDTO cacheStats() {
+        return cache.stats();
     }
 
     private VenueDTO toDTO(Venue venue) {
@@ -71,8 +130,23 @@ public class VenueService {
                 .name(venue.getName())
                 .location(venue.getLocation())
                 .sportId(venue.getSportId())
+                .latitude(venue.getLatitude())
+                .longitude(venue.getLongitude())
                 .createdAt(venue.getCreatedAt())
                 .updatedAt(venue.getUpdatedAt())
                 .build();
     }
+
+    private NearbyVenueDTO toNearbyDTO(Venue venue, double distanceKm) {
+        return NearbyVenueDTO.builder()
+                .id(venue.getId())
+                .name(venue.getName())
+                .location(venue.getLocation())
+                .sportId(venue.getSportId())
+                .latitude(venue.getLatitude())
+                .longitude(venue.getLongitude())
+                // Metre precision is plenty for display and sorting by clients
+                .distanceKm(Math.round(distanceKm * 1000) / 1000.0)
+                .build();
+    }
 }
@@ -0,0 +1,98 @@
+package com.example.sports_booking.config;
+
+import com.example.sports_booking.entity.Venue;
+import com.example.sports_booking.repository.VenueRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the application against two embedded databases standing in for a primary and a replica that share a
+ * schema but not their rows, so which one served a read shows in what it returned.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "datasource.replicas.urls=" + ReadReplicaRoutingTests.REPLICA_URL,
+        "datasource.replicas.max-lag=5s",
+        // Checks are driven by the tests
+        "datasource.replicas.heartbeat-interval=PT1H",
+        "datasource.replicas.check-interval=PT1H"
+})
+@ActiveProfiles("test")
+class ReadReplicaRoutingTests {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    VenueRepository venueRepository;
+
+    @Autowired
+    ReplicaDataSource replicaDataSource;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    JdbcTemplate jdbc;
+
+    private final JdbcTemplate replicaJdbc = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path schema = Files.createTempFile("schema", ".sql");
+        try {
+            jdbc.execute("SCRIPT NODATA TO '" + schema + "'");
+            replicaJdbc.execute("DROP ALL OBJECTS");
+            replicaJdbc.execute("RUNSCRIPT FROM '" + schema + "'");
+        } finally {
+            Files.deleteIfExists(schema);
+        }
+        venueRepository.deleteAll();
+        venueRepository.save(Venue.builder().name("Primary Arena").location("North").sportId("football").build());
+        replicaJdbc.update("INSERT INTO venue (name, location, sport_id, created_at, updated_at) "
+                + "VALUES ('Replica Arena', 'South', 'football', NOW(), NOW())");
+    }
+
+    @Test
+    void readOnlyTransactionsUseAHealthyReplicaAndReadWriteOnesThePrimary() {
+        beatOnReplica(LocalDateTime.now());
+        replicaDataSource.checkReplicas();
+
+        assertThat(replicaDataSource.healthyReplicas()).isEqualTo(1);
+        assertThat(names(venueRepository.findAll())).containsExactly("Replica Arena");
+        assertThat(names(transactionTemplate.execute(status -> venueRepository.findAll())))
+                .containsExactly("Primary Arena");
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhenTheReplicaLags() {
+        beatOnReplica(LocalDateTime.now().minusMinutes(1));
+        replicaDataSource.checkReplicas();
+
+        assertThat(replicaDataSource.healthyReplicas()).isZero();
+        assertThat(names(venueRepository.findAll())).containsExactly("Primary Arena");
+    }
+
+    private void beatOnReplica(LocalDateTime at) {
+        replicaJdbc.update("DELETE FROM replication_heartbeat");
+        replicaJdbc.update("INSERT INTO replication_heartbeat (id, beat_at) VALUES (1, ?)", Timestamp.valueOf(at));
+    }
+
+    private static List<String> names(List<Venue> venues) {
+        return venues.stream().map(Venue::getName).collect(Collectors.toList());
+    }
+}
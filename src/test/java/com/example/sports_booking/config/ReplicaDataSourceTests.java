@@ -0,0 +1,109 @@
+package com.example.sports_booking.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplicaDataSourceTests {
+
+    private static final String HEARTBEAT_TABLE = "CREATE TABLE replication_heartbeat (id INT PRIMARY KEY, beat_at TIMESTAMP(3))";
+
+    private final DriverManagerDataSource primary =
+            new DriverManagerDataSource("jdbc:h2:mem:heartbeat-primary;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+    private final DriverManagerDataSource replicaDatabase =
+            new DriverManagerDataSource("jdbc:h2:mem:heartbeat-replica;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+    private final JdbcTemplate primaryJdbc = new JdbcTemplate(primary);
+    private final JdbcTemplate replicaJdbc = new JdbcTemplate(replicaDatabase);
+    private HikariDataSource pool;
+    private ReplicaDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        primaryJdbc.execute(HEARTBEAT_TABLE);
+        replicaJdbc.execute(HEARTBEAT_TABLE);
+        pool = mock(HikariDataSource.class);
+        when(pool.getPoolName()).thenReturn("replica-1");
+        when(pool.getConnection()).thenAnswer(invocation -> replicaDatabase.getConnection());
+        dataSource = new ReplicaDataSource(primary, List.of(pool), Duration.ofSeconds(5), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        primaryJdbc.execute("DROP ALL OBJECTS");
+        replicaJdbc.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void theHeartbeatIsStampedAndComparedWithThePrimarysTime() {
+        dataSource.beat();
+        dataSource.beat();
+        replicate();
+
+        dataSource.checkReplicas();
+
+        assertThat(primaryJdbc.queryForObject("SELECT COUNT(*) FROM replication_heartbeat", Integer.class)).isEqualTo(1);
+        assertThat(dataSource.healthyReplicas()).isEqualTo(1);
+    }
+
+    @Test
+    void aReplicaThatCannotBeReachedIsTakenOutOfRotation() throws Exception {
+        dataSource.beat();
+        replicate();
+        dataSource.checkReplicas();
+
+        when(pool.getConnection()).thenThrow(new SQLTransientConnectionException("Communications link failure", "08S01"));
+        dataSource.checkReplicas();
+
+        assertThat(dataSource.healthyReplicas()).isZero();
+    }
+
+    @Test
+    void aFailingCheckQueryLeavesTheReplicaInRotation() {
+        dataSource.beat();
+        replicate();
+        dataSource.checkReplicas();
+
+        replicaJdbc.execute("DROP TABLE replication_heartbeat");
+        dataSource.checkReplicas();
+
+        assertThat(dataSource.healthyReplicas()).isEqualTo(1);
+    }
+
+    @Test
+    void aBusyReplicaPoolSendsTheReadToThePrimaryWithoutTakingTheReplicaOut() throws Exception {
+        dataSource.beat();
+        replicate();
+        dataSource.checkReplicas();
+
+        when(pool.getConnection()).thenThrow(new SQLTransientConnectionException(
+                "replica-1 - Connection is not available, request timed out after 2000ms."));
+        try (Connection connection = dataSource.getConnection()) {
+            assertThat(connection.getMetaData().getURL()).contains("heartbeat-primary");
+        }
+
+        assertThat(dataSource.healthyReplicas()).isEqualTo(1);
+    }
+
+    /** Copies the primary's stamp to the replica, as replication would. */
+    private void replicate() {
+        Timestamp beatAt = primaryJdbc.queryForObject("SELECT beat_at FROM replication_heartbeat WHERE id = 1", Timestamp.class);
+        assertThat(beatAt.toLocalDateTime()).isBefore(LocalDateTime.now().plusSeconds(1));
+        replicaJdbc.update("DELETE FROM replication_heartbeat");
+        replicaJdbc.update("INSERT INTO replication_heartbeat (id, beat_at) VALUES (1, ?)", beatAt);
+    }
+}
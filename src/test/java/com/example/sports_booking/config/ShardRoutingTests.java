@@ -0,0 +1,157 @@
+package com.example.sports_booking.config;
+
+import com.example.sports_booking.dto.AvailableVenueDTO;
+import com.example.sports_booking.dto.BookingDTO;
+import com.example.sports_booking.dto.BookingFilter;
+import com.example.sports_booking.dto.CreateBatchBookingRequest;
+import com.example.sports_booking.dto.CreateBookingRequest;
+import com.example.sports_booking.dto.CreateSlotRequest;
+import com.example.sports_booking.dto.CreateVenueRequest;
+import com.example.sports_booking.dto.KeysetPage;
+import com.example.sports_booking.dto.SlotDTO;
+import com.example.sports_booking.dto.VenueDTO;
+import com.example.sports_booking.service.AvailabilityService;
+import com.example.sports_booking.service.BookingService;
+import com.example.sports_booking.service.SlotService;
+import com.example.sports_booking.service.VenueService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the application over two embedded databases as shards, created from {@code init.sql} with interleaved
+ * identity columns the way {@link ShardingConfig} sets them up on MySQL.
+ */
+@SpringBootTest(properties = {
+        "sharding.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=none"
+})
+@ActiveProfiles("test")
+class ShardRoutingTests {
+
+    private static final List<String> SHARD_URLS = List.of(
+            "jdbc:h2:mem:shard-0;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+            "jdbc:h2:mem:shard-1;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+    private static final LocalDateTime DAY = LocalDateTime.now().plusDays(3).withHour(0).withMinute(0).withSecond(0).withNano(0);
+
+    @Autowired
+    VenueService venueService;
+
+    @Autowired
+    SlotService slotService;
+
+    @Autowired
+    BookingService bookingService;
+
+    @Autowired
+    AvailabilityService availabilityService;
+
+    @Autowired
+    ShardRouter shards;
+
+    @DynamicPropertySource
+    static void shards(DynamicPropertyRegistry registry) throws IOException {
+        String[] statements = Files.readString(Path.of("init.sql"))
+                .replaceAll("(?m)^--.*$", "")
+                .split(";");
+        for (int shard = 0; shard < SHARD_URLS.size(); shard++) {
+            JdbcTemplate jdbc = shardJdbc(shard);
+            for (String statement : statements) {
+                String sql = statement.trim();
+                if (!sql.isEmpty() && !sql.startsWith("CREATE DATABASE") && !sql.startsWith("USE ")) {
+                    jdbc.execute(sql);
+                }
+            }
+            for (String table : List.of("venue", "slot", "booking")) {
+                jdbc.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + (shard + 1));
+                jdbc.execute("ALTER TABLE " + table + " ALTER COLUMN id SET INCREMENT BY " + SHARD_URLS.size());
+            }
+        }
+        registry.add("sharding.urls", () -> String.join(",", SHARD_URLS));
+    }
+
+    @Test
+    void slotsAndBookingsAreStoredWithTheirVenue() {
+        VenueDTO first = venue("First");
+        VenueDTO second = venue("Second");
+        assertThat(shards.shardOf(first.getId())).isNotEqualTo(shards.shardOf(second.getId()));
+
+        SlotDTO slot = slot(second, 1, 18);
+        BookingDTO booking = bookingService.book(new CreateBookingRequest(slot.getId(), "sharded-user"));
+
+        int shard = shards.shardOf(second.getId());
+        JdbcTemplate home = shardJdbc(shard);
+        JdbcTemplate other = shardJdbc(1 - shard);
+        assertThat(home.queryForObject("SELECT COUNT(*) FROM booking WHERE id = ?", Integer.class, booking.getId())).isEqualTo(1);
+        assertThat(other.queryForObject("SELECT COUNT(*) FROM slot WHERE venue_id = ?", Integer.class, second.getId())).isZero();
+        assertThat(bookingService.getBooking(booking.getId()).getSlotId()).isEqualTo(slot.getId());
+        assertThat(venueService.getById(first.getId()).getName()).isEqualTo(first.getName());
+    }
+
+    @Test
+    void crossShardReadsAreMergedInOrder() {
+        VenueDTO first = venue("Early");
+        VenueDTO second = venue("Late");
+        List<SlotDTO> slots = List.of(slot(first, 2, 8), slot(second, 2, 9), slot(first, 2, 10), slot(second, 2, 11));
+        LocalDateTime bookedFrom = LocalDateTime.now().minusSeconds(1);
+        List<Long> bookingIds = new ArrayList<>();
+        for (SlotDTO slot : slots.subList(0, 2)) {
+            bookingIds.add(bookingService.book(new CreateBookingRequest(slot.getId(), "merge-user")).getId());
+        }
+
+        List<Long> available = new ArrayList<>();
+        String cursor = null;
+        do {
+            KeysetPage<AvailableVenueDTO> page = availabilityService.findAvailableVenues(null, DAY.plusDays(2),
+                    DAY.plusDays(3), null, cursor, 1);
+            page.getItems().forEach(row -> available.add(row.getSlotId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertThat(available).containsExactly(slots.get(2).getId(), slots.get(3).getId());
+
+        BookingFilter filter = BookingFilter.builder().createdFrom(bookedFrom).build();
+        assertThat(bookingService.listBookings(filter, null, 10).getItems())
+                .extracting(BookingDTO::getId)
+                .containsExactlyElementsOf(bookingIds);
+        assertThat(venueService.list()).extracting(VenueDTO::getId).isSorted();
+    }
+
+    @Test
+    void bookingSlotsOfDifferentShardsTogetherIsRejected() {
+        SlotDTO first = slot(venue("Cart A"), 4, 18);
+        SlotDTO second = slot(venue("Cart B"), 4, 18);
+
+        assertThatThrownBy(() -> bookingService.bookAll(
+                new CreateBatchBookingRequest(List.of(first.getId(), second.getId()), "cart-user")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("different shards");
+    }
+
+    private VenueDTO venue(String name) {
+        return venueService.create(CreateVenueRequest.builder().name(name).location("Town").sportId("football").build());
+    }
+
+    private SlotDTO slot(VenueDTO venue, int dayOffset, int hour) {
+        LocalDateTime start = DAY.plusDays(dayOffset).withHour(hour);
+        return slotService.addSlot(venue.getId(), new CreateSlotRequest(start, start.plusHours(1)));
+    }
+
+    private static JdbcTemplate shardJdbc(int shard) {
+        return new JdbcTemplate(new DriverManagerDataSource(SHARD_URLS.get(shard), "sa", ""));
+    }
+}
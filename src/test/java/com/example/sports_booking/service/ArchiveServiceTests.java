@@ -0,0 +1,220 @@
+package com.example.sports_booking.service;
+
+import com.example.sports_booking.dto.BookingDTO;
+import com.example.sports_booking.dto.CreateBookingRequest;
+import com.example.sports_booking.dto.CreateSlotRequest;
+import com.example.sports_booking.dto.CreateVenueRequest;
+import com.example.sports_booking.dto.SlotDTO;
+import com.example.sports_booking.dto.VenueDTO;
+import com.example.sports_booking.exception.SlotOverlapException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:archive;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "archive.retention=7d",
+        "archive.batch-size=2",
+        // Long enough to watch a run between two batches
+        "archive.batch-pause=300ms",
+        "archive.max-batches=2",
+        // Runs are driven by the tests
+        "archive.initial-delay=PT1H"
+})
+@ActiveProfiles("test")
+class ArchiveServiceTests {
+
+    @Autowired
+    ArchiveService archiveService;
+
+    @Autowired
+    VenueService venueService;
+
+    @Autowired
+    SlotService slotService;
+
+    @Autowired
+    BookingService bookingService;
+
+    @Autowired
+    JdbcTemplate jdbc;
+
+    @Autowired
+    TaskScheduler taskScheduler;
+
+    @Autowired
+    Ticker ticker;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Test
+    void endedSlotsMoveToTheArchiveWithTheirBookingsInBatches() {
+        VenueDTO venue = venueService.create(CreateVenueRequest.builder()
+                .name("Old Court").location("Town").sportId("tennis").build());
+        LocalDateTime past = LocalDateTime.now().minusDays(20).withHour(8).withMinute(0).withSecond(0).withNano(0);
+        SlotDTO booked = slot(venue, past);
+        SlotDTO cancelled = slot(venue, past.plusHours(1));
+        slot(venue, past.plusHours(2));
+        SlotDTO recent = slot(venue, LocalDateTime.now().minusDays(1).withMinute(0).withSecond(0).withNano(0));
+
+        BookingDTO kept = bookingService.book(new CreateBookingRequest(booked.getId(), "history-user"));
+        BookingDTO dropped = bookingService.book(new CreateBookingRequest(cancelled.getId(), "history-user"));
+        bookingService.cancel(dropped.getId());
+        BookingDTO current = bookingService.book(new CreateBookingRequest(recent.getId(), "history-user"));
+
+        assertThat(archiveService.archive()).isEqualTo(3);
+
+        assertThat(jdbc.queryForList("SELECT id FROM slot WHERE venue_id = ?", Long.class, venue.getId()))
+                .containsExactly(recent.getId());
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM slot_archive WHERE venue_id = ?", Integer.class, venue.getId()))
+                .isEqualTo(3);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM booking WHERE id IN (?, ?)", Integer.class,
+                kept.getId(), dropped.getId())).isZero();
+
+        BookingDTO archived = bookingService.getBooking(kept.getId());
+        assertThat(archived.getSlotId()).isEqualTo(booked.getId());
+        assertThat(archived.getVenueName()).isEqualTo("Old Court");
+        assertThat(archived.getSlotStartTime()).isEqualTo(past);
+        assertThat(bookingService.getBooking(dropped.getId()).getStatus()).isEqualTo("CANCELLED");
+        assertThat(bookingService.getBooking(current.getId()).getStatus()).isEqualTo("CONFIRMED");
+
+        // The venue's range is free for new slots once its old ones are gone
+        assertThat(slot(venue, past).getId()).isNotEqualTo(booked.getId());
+        assertThat(archiveService.archive()).isEqualTo(1);
+    }
+
+    @Test
+    void otherScheduledJobsKeepRunningWhileAnArchiveRunIsInProgress() throws Exception {
+        VenueDTO venue = venueService.create(CreateVenueRequest.builder()
+                .name("Busy Court").location("Town").sportId("tennis").build());
+        LocalDateTime past = LocalDateTime.now().minusDays(30).withHour(8).withMinute(0).withSecond(0).withNano(0);
+        for (int hour = 0; hour < 6; hour++) {
+            slot(venue, past.plusHours(hour));
+        }
+
+        // Runs on the scheduler that also runs every @Scheduled job, as the scheduled archive does
+        CompletableFuture<Void> run = new CompletableFuture<>();
+        taskScheduler.schedule(() -> {
+            archiveService.scheduledArchive();
+            run.complete(null);
+        }, Instant.now());
+
+        // The first batch is in and the run is pausing before the next one
+        await(() -> archived(venue) >= 2);
+        int ticks = ticker.ticks.get();
+        await(() -> ticker.ticks.get() > ticks);
+        assertThat(run).isNotDone();
+
+        run.get(10, TimeUnit.SECONDS);
+        // Two batches per run; the rest is left to the next run
+        assertThat(archived(venue)).isEqualTo(4);
+        assertThat(archiveService.archive()).isEqualTo(2);
+    }
+
+    @Test
+    void aWriterWaitingForTheVenueWhileItIsArchivedStillSeesTheSlotCommittedBeforeIt() throws Exception {
+        VenueDTO venue = venueService.create(CreateVenueRequest.builder()
+                .name("Contended Court").location("Town").sportId("tennis").build());
+        slot(venue, LocalDateTime.now().minusDays(20).withMinute(0).withSecond(0).withNano(0));
+        LocalDateTime start = LocalDateTime.now().plusDays(3).withMinute(0).withSecond(0).withNano(0);
+
+        // The first writer adds a slot and keeps its transaction, and with it the venue, open
+        CountDownLatch added = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            slot(venue, start);
+            added.countDown();
+            awaitLatch(commit);
+        }));
+        assertThat(added.await(10, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<SlotDTO> second = new CompletableFuture<>();
+        Thread secondWriter = new Thread(() -> {
+            try {
+                second.complete(slot(venue, start.plusMinutes(30)));
+            } catch (RuntimeException e) {
+                second.completeExceptionally(e);
+            }
+        });
+        secondWriter.start();
+        await(() -> secondWriter.getState() == Thread.State.WAITING || secondWriter.getState() == Thread.State.TIMED_WAITING);
+
+        // Archiving the old slot evicts the venue from the overlap index while the second writer waits
+        CompletableFuture<Integer> archive = CompletableFuture.supplyAsync(() -> archiveService.archive());
+        await(() -> archived(venue) == 1);
+        commit.countDown();
+        first.get(10, TimeUnit.SECONDS);
+        assertThat(archive.get(10, TimeUnit.SECONDS)).isEqualTo(1);
+
+        assertThatThrownBy(() -> second.get(10, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(SlotOverlapException.class);
+        assertThatThrownBy(() -> slot(venue, start.minusMinutes(30))).isInstanceOf(SlotOverlapException.class);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM slot WHERE venue_id = ?", Integer.class, venue.getId()))
+                .isEqualTo(1);
+    }
+
+    private int archived(VenueDTO venue) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM slot_archive WHERE venue_id = ?", Integer.class, venue.getId());
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition met within 10s").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static void awaitLatch(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private SlotDTO slot(VenueDTO venue, LocalDateTime start) {
+        return slotService.addSlot(venue.getId(), new CreateSlotRequest(start, start.plusHours(1)));
+    }
+
+    /** Stands in for the other scheduled jobs. */
+    static class Ticker {
+
+        final AtomicInteger ticks = new AtomicInteger();
+
+        @Scheduled(fixedDelay = 10)
+        void tick() {
+            ticks.incrementAndGet();
+        }
+    }
+
+    @TestConfiguration
+    static class TickerConfig {
+
+        @Bean
+        Ticker ticker() {
+            return new Ticker();
+        }
+    }
+}
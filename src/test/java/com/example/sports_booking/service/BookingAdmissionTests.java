@@ -0,0 +1,65 @@
+package com.example.sports_booking.service;
+
+import com.example.sports_booking.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BookingAdmissionTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void userBucketAllowsItsBurstThenAsksToRetryAfterTheRefill() {
+        // One token every 10 seconds, so the bucket cannot refill during the test
+        BookingAdmission admission = new BookingAdmission(true, 0.1, 3, 10, 100, 10, registry);
+        for (long slot = 1; slot <= 3; slot++) {
+            admission.admit("burst-user", List.of(slot)).close();
+        }
+
+        assertThatThrownBy(() -> admission.admit("burst-user", List.of(4L)))
+                .isInstanceOf(TooManyRequestsException.class)
+                .satisfies(e -> assertThat(((TooManyRequestsException) e).getRetryAfterSeconds()).isBetween(9L, 10L));
+        admission.admit("other-user", List.of(4L)).close();
+        assertThat(rejected("user_rate")).isEqualTo(1);
+    }
+
+    @Test
+    void slotCapIsReleasedWhenRequestsComplete() {
+        BookingAdmission admission = new BookingAdmission(true, 1000, 1000, 2, 100, 10, registry);
+        BookingAdmission.Permit first = admission.admit("a", List.of(7L));
+        BookingAdmission.Permit second = admission.admit("b", List.of(7L, 8L));
+
+        assertThatThrownBy(() -> admission.admit("c", List.of(8L, 7L)))
+                .isInstanceOf(TooManyRequestsException.class)
+                .hasMessageContaining("Slot 7");
+        // The rejected request gave back its claim on slot 8
+        admission.admit("d", List.of(8L)).close();
+
+        first.close();
+        admission.admit("c", List.of(8L, 7L)).close();
+        second.close();
+        assertThat(rejected("slot_busy")).isEqualTo(1);
+    }
+
+    @Test
+    void requestsBeyondTheGlobalCapAreShed() {
+        BookingAdmission admission = new BookingAdmission(true, 1000, 1000, 10, 2, 10, registry);
+        BookingAdmission.Permit first = admission.admit("a", List.of(1L));
+        BookingAdmission.Permit second = admission.admit("b", List.of(2L));
+
+        assertThatThrownBy(() -> admission.admit("c", List.of(3L))).isInstanceOf(TooManyRequestsException.class);
+        first.close();
+        admission.admit("c", List.of(3L)).close();
+        second.close();
+        assertThat(rejected("overloaded")).isEqualTo(1);
+    }
+
+    private double rejected(String reason) {
+        return registry.get("booking.admission.rejected").tag("reason", reason).counter().count();
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.sports_booking.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HashedTimerWheelTests {
+
+    private final BlockingQueue<String> fired = new LinkedBlockingQueue<>();
+    private HashedTimerWheel<String> wheel;
+
+    @AfterEach
+    void close() {
+        wheel.close();
+    }
+
+    @Test
+    void firesInDeadlineOrderAcrossRevolutions() throws InterruptedException {
+        // 8 buckets of 20ms: the 300ms timeout wraps the wheel almost twice
+        wheel = new HashedTimerWheel<>("test-wheel", Duration.ofMillis(20), 8, fired::add);
+        long now = System.currentTimeMillis();
+        wheel.schedule("late", now + 300);
+        wheel.schedule("early", now + 60);
+        wheel.schedule("middle", now + 150);
+
+        assertThat(List.of(poll(), poll(), poll())).containsExactly("early", "middle", "late");
+        assertThat(System.currentTimeMillis() - now).isGreaterThanOrEqualTo(300);
+        assertThat(wheel.pending()).isZero();
+    }
+
+    @Test
+    void firesOverdueTimeoutsOnTheNextTick() throws InterruptedException {
+        wheel = new HashedTimerWheel<>("test-wheel", Duration.ofMillis(20), 8, fired::add);
+        wheel.schedule("overdue", System.currentTimeMillis() - 1000);
+
+        assertThat(poll()).isEqualTo("overdue");
+    }
+
+    @Test
+    void keepsTickingWhenACallbackFails() throws InterruptedException {
+        wheel = new HashedTimerWheel<>("test-wheel", Duration.ofMillis(20), 8, task -> {
+            if (task.equals("boom")) {
+                throw new IllegalStateException(task);
+            }
+            fired.add(task);
+        });
+        long now = System.currentTimeMillis();
+        wheel.schedule("boom", now + 20);
+        wheel.schedule("after", now + 80);
+
+        assertThat(poll()).isEqualTo("after");
+    }
+
+    private String poll() throws InterruptedException {
+        return fired.poll(2, TimeUnit.SECONDS);
+    }
+}
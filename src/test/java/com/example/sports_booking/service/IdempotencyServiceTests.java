@@ -0,0 +1,220 @@
+package com.example.sports_booking.service;
+
+import com.example.sports_booking.config.ShardRouter;
+import com.example.sports_booking.dto.BookingDTO;
+import com.example.sports_booking.dto.CreateBookingRequest;
+import com.example.sports_booking.dto.CreateSlotRequest;
+import com.example.sports_booking.dto.CreateVenueRequest;
+import com.example.sports_booking.dto.SlotDTO;
+import com.example.sports_booking.exception.TooManyRequestsException;
+import com.example.sports_booking.repository.IdempotencyJdbcRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:idempotency;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        // Cleanup runs are driven by the test
+        "idempotency.cleanup-interval=PT1H",
+        "idempotency.cleanup-batch-size=2"
+})
+@ActiveProfiles("test")
+class IdempotencyServiceTests {
+
+    @Autowired
+    IdempotencyService idempotency;
+
+    @Autowired
+    BookingService bookingService;
+
+    @Autowired
+    VenueService venueService;
+
+    @Autowired
+    SlotService slotService;
+
+    @Autowired
+    IdempotencyJdbcRepository repo;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    ShardRouter shards;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    JdbcTemplate jdbc;
+
+    @Test
+    void retriesReplayTheOriginalBookingWithoutBookingAgain() {
+        CreateBookingRequest request = new CreateBookingRequest(slot().getId(), "retrying-user");
+        String key = UUID.randomUUID().toString();
+        AtomicInteger calls = new AtomicInteger();
+
+        BookingDTO first = book(idempotency, key, request, calls);
+        BookingDTO retried = book(idempotency, key, request, calls);
+        // A second instance only has the stored response to go by
+        IdempotencyService otherInstance = new IdempotencyService(repo, transactionTemplate, shards, objectMapper,
+                new SimpleMeterRegistry(), Duration.ofHours(1), 10, 1000);
+        BookingDTO elsewhere = book(otherInstance, key, request, calls);
+
+        assertThat(calls).hasValue(1);
+        assertThat(retried.getId()).isEqualTo(first.getId());
+        assertThat(elsewhere.getId()).isEqualTo(first.getId());
+        assertThat(elsewhere.getVenueName()).isEqualTo(first.getVenueName());
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM booking WHERE slot_id = ?", Integer.class,
+                request.getSlotId())).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentDuplicatesWaitForTheRequestInFlight() throws Exception {
+        CreateBookingRequest request = new CreateBookingRequest(slot().getId(), "impatient-user");
+        String key = UUID.randomUUID().toString();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<BookingDTO> first = CompletableFuture.supplyAsync(() ->
+                idempotency.execute(key, "book " + request.getSlotId(), BookingDTO.class, () -> {
+                    calls.incrementAndGet();
+                    started.countDown();
+                    await(release);
+                    return bookingService.book(request);
+                }));
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<BookingDTO> duplicate = CompletableFuture.supplyAsync(() -> book(idempotency, key, request, calls));
+        Thread.sleep(200);
+        assertThat(duplicate).isNotDone();
+        release.countDown();
+
+        assertThat(duplicate.get(10, TimeUnit.SECONDS).getId()).isEqualTo(first.get(10, TimeUnit.SECONDS).getId());
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void replaysFromMemoryAreNotShedWhenTheUserIsOutOfTokens() {
+        // One token, refilled only after the test is over
+        BookingAdmission admission = new BookingAdmission(true, 0.01, 1, 10, 100, 10, new SimpleMeterRegistry());
+        CreateBookingRequest request = new CreateBookingRequest(slot().getId(), "eager-user");
+        String key = UUID.randomUUID().toString();
+        AtomicInteger calls = new AtomicInteger();
+
+        BookingDTO first = admitted(idempotency, admission, key, request, calls);
+        CreateBookingRequest another = new CreateBookingRequest(slot().getId(), "eager-user");
+        assertThatThrownBy(() -> admitted(idempotency, admission, UUID.randomUUID().toString(), another, calls))
+                .isInstanceOf(TooManyRequestsException.class);
+
+        assertThat(admitted(idempotency, admission, key, request, calls).getId()).isEqualTo(first.getId());
+        // Another instance would have to read the table, which only admitted requests do
+        IdempotencyService otherInstance = new IdempotencyService(repo, transactionTemplate, shards, objectMapper,
+                new SimpleMeterRegistry(), Duration.ofHours(1), 10, 1000);
+        assertThatThrownBy(() -> admitted(otherInstance, admission, key, request, calls))
+                .isInstanceOf(TooManyRequestsException.class);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void aShedRequestWithAFreshKeyNeverReachesTheDatabase() {
+        IdempotencyJdbcRepository table = mock(IdempotencyJdbcRepository.class);
+        IdempotencyService service = new IdempotencyService(table, transactionTemplate, shards, objectMapper,
+                new SimpleMeterRegistry(), Duration.ofHours(1), 10, 1000);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> service.execute(UUID.randomUUID().toString(), "book 1 burst-user", BookingDTO.class,
+                () -> {
+                    throw new TooManyRequestsException("Too many booking requests for user burst-user", 1);
+                }, () -> {
+                    calls.incrementAndGet();
+                    return null;
+                })).isInstanceOf(TooManyRequestsException.class);
+
+        verifyNoInteractions(table);
+        assertThat(calls).hasValue(0);
+    }
+
+    @Test
+    void aKeyCannotBeReusedForAnotherRequest() {
+        String key = UUID.randomUUID().toString();
+        book(idempotency, key, new CreateBookingRequest(slot().getId(), "careless-user"), new AtomicInteger());
+
+        CreateBookingRequest other = new CreateBookingRequest(slot().getId(), "careless-user");
+        assertThatThrownBy(() -> book(idempotency, key, other, new AtomicInteger()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("different request");
+    }
+
+    @Test
+    void expiredKeysArePurgedInBatches() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 5; i++) {
+            repo.insert("expired-" + i, "book 1", "{}", now.minusHours(2), now.minusHours(1));
+        }
+        repo.insert("unexpired", "book 1", "{}", now, now.plusHours(1));
+
+        // Each batch is one DELETE ... LIMIT, which must stop at the limit on H2 as on MySQL
+        assertThat(repo.deleteExpired(now, 2)).isEqualTo(2);
+        assertThat(keys("expired-%")).isEqualTo(3);
+
+        idempotency.deleteExpired();
+
+        assertThat(keys("expired-%")).isZero();
+        assertThat(keys("unexpired")).isEqualTo(1);
+    }
+
+    private BookingDTO book(IdempotencyService service, String key, CreateBookingRequest request, AtomicInteger calls) {
+        return service.execute(key, "book " + request.getSlotId(), BookingDTO.class, () -> {
+            calls.incrementAndGet();
+            return bookingService.book(request);
+        });
+    }
+
+    private BookingDTO admitted(IdempotencyService service, BookingAdmission admission, String key,
+                                CreateBookingRequest request, AtomicInteger calls) {
+        return service.execute(key, "book " + request.getSlotId(), BookingDTO.class,
+                () -> admission.admit(request.getUserName(), List.of(request.getSlotId())), () -> {
+                    calls.incrementAndGet();
+                    return bookingService.book(request);
+                });
+    }
+
+    private int keys(String pattern) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM idempotency_key WHERE idempotency_key LIKE ?", Integer.class, pattern);
+    }
+
+    private SlotDTO slot() {
+        Long venueId = venueService.create(CreateVenueRequest.builder()
+                .name("Retry Hall").location("Town").sportId("badminton").build()).getId();
+        LocalDateTime start = LocalDateTime.now().plusDays(2).withMinute(0).withSecond(0).withNano(0);
+        return slotService.addSlot(venueId, new CreateSlotRequest(start, start.plusHours(1)));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.sports_booking.service;
+
+import com.example.sports_booking.dto.BookingDTO;
+import com.example.sports_booking.dto.CreateBookingRequest;
+import com.example.sports_booking.dto.CreateHoldRequest;
+import com.example.sports_booking.dto.CreateSlotRequest;
+import com.example.sports_booking.dto.CreateVenueRequest;
+import com.example.sports_booking.dto.OutboxEventDTO;
+import com.example.sports_booking.dto.SlotDTO;
+import com.example.sports_booking.entity.OutboxEventType;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "booking.admission.enabled=false",
+        // The tests drive the relay themselves, with the sink below instead of the file
+        "outbox.sink=memory",
+        "outbox.settle=0s",
+        "outbox.batch-size=2",
+        "outbox.poll-interval=PT1H"
+})
+@ActiveProfiles("test")
+class OutboxRelayTests {
+
+    @Autowired
+    OutboxRelay relay;
+
+    @Autowired
+    RecordingSink sink;
+
+    @Autowired
+    BookingService bookingService;
+
+    @Autowired
+    VenueService venueService;
+
+    @Autowired
+    SlotService slotService;
+
+    @Autowired
+    SlotHoldService holdService;
+
+    @Autowired
+    JdbcTemplate jdbc;
+
+    @Autowired
+    MeterRegistry registry;
+
+    @BeforeEach
+    void drain() {
+        relay.relay();
+        sink.batches.clear();
+    }
+
+    @Test
+    void changesAreRelayedInOrderPerVenueAndThenRemoved() {
+        SlotDTO first = slot("First Court");
+        SlotDTO second = slot("Second Court");
+        BookingDTO booking = bookingService.book(new CreateBookingRequest(first.getId(), "outbox-user"));
+        bookingService.cancel(booking.getId());
+        holdService.hold(second.getId(), new CreateHoldRequest("holding-user"));
+
+        assertThat(relay.relay()).isEqualTo(5);
+
+        assertThat(sink.batches).allSatisfy(batch ->
+                assertThat(batch).extracting(OutboxEventDTO::getVenueId).containsOnly(batch.get(0).getVenueId()));
+        assertThat(eventsOf(first.getVenueId())).extracting(OutboxEventDTO::getType).containsExactly(
+                OutboxEventType.SLOT_CREATED, OutboxEventType.BOOKING_CONFIRMED, OutboxEventType.BOOKING_CANCELLED);
+        assertThat(eventsOf(first.getVenueId()).get(2).getBookingId()).isEqualTo(booking.getId());
+        assertThat(eventsOf(first.getVenueId()).get(2).getUserName()).isEqualTo("outbox-user");
+        assertThat(eventsOf(second.getVenueId())).extracting(OutboxEventDTO::getType).containsExactly(
+                OutboxEventType.SLOT_CREATED, OutboxEventType.SLOT_HELD);
+        assertThat(eventsOf(second.getVenueId()).get(1).getSlotId()).isEqualTo(second.getId());
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM outbox_event", Integer.class)).isZero();
+    }
+
+    @Test
+    void anExpiredHoldIsReportedReleasedOnce() {
+        SlotDTO slot = slot("Sweep Court");
+        holdService.hold(slot.getId(), new CreateHoldRequest("slow-payer"));
+        jdbc.update("UPDATE slot SET hold_expires_at = ? WHERE id = ?", LocalDateTime.now().minusMinutes(1), slot.getId());
+
+        holdService.sweepExpired();
+        holdService.sweepExpired();
+        relay.relay();
+
+        assertThat(eventsOf(slot.getVenueId())).extracting(OutboxEventDTO::getType).containsExactly(
+                OutboxEventType.SLOT_CREATED, OutboxEventType.SLOT_HELD, OutboxEventType.SLOT_RELEASED);
+    }
+
+    @Test
+    void aFailingVenueDoesNotHoldUpTheOthers() {
+        SlotDTO failing = slot("Failing Court");
+        slotService.addSlot(failing.getVenueId(), new CreateSlotRequest(failing.getEndTime(), failing.getEndTime().plusHours(1)));
+        SlotDTO healthy = slot("Healthy Court");
+        sink.failingVenues.add(failing.getVenueId());
+        try {
+            // The failing venue fills the first batch on its own
+            assertThat(relay.relay()).isEqualTo(1);
+        } finally {
+            sink.failingVenues.clear();
+        }
+        assertThat(eventsOf(healthy.getVenueId())).extracting(OutboxEventDTO::getSlotId).containsExactly(healthy.getId());
+
+        assertThat(relay.relay()).isEqualTo(2);
+        assertThat(eventsOf(failing.getVenueId())).hasSize(2);
+    }
+
+    @Test
+    void aVenueWithAnUnsettledEventWaitsFromThatEventOn() {
+        SlotDTO first = slot("Settling Court");
+        BookingDTO booking = bookingService.book(new CreateBookingRequest(first.getId(), "settling-user"));
+        SlotDTO other = slot("Settled Court");
+        // As if the booking had only just been recorded
+        jdbc.update("UPDATE outbox_event SET created_at = ? WHERE booking_id = ?",
+                LocalDateTime.now().plusHours(1), booking.getId());
+
+        assertThat(relay.relay()).isEqualTo(2);
+        assertThat(eventsOf(first.getVenueId())).extracting(OutboxEventDTO::getType)
+                .containsExactly(OutboxEventType.SLOT_CREATED);
+        assertThat(eventsOf(other.getVenueId())).hasSize(1);
+
+        jdbc.update("UPDATE outbox_event SET created_at = ? WHERE booking_id = ?",
+                LocalDateTime.now().minusSeconds(1), booking.getId());
+        assertThat(relay.relay()).isEqualTo(1);
+    }
+
+    @Test
+    void anEventCommittedAfterLaterOnesOfItsVenueIsStillDeliveredAndCounted() {
+        SlotDTO slot = slot("Slow Court");
+        relay.relay();
+        OutboxEventDTO delivered = eventsOf(slot.getVenueId()).get(0);
+        double before = registry.get("outbox.late").counter().count();
+
+        // A transaction that was open for longer than the settle time commits an event with an older id
+        jdbc.update("INSERT INTO outbox_event (id, event_type, venue_id, slot_id, created_at) VALUES (?, ?, ?, ?, ?)",
+                delivered.getId() - 1, OutboxEventType.SLOT_HELD.name(), slot.getVenueId(), slot.getId(),
+                LocalDateTime.now().minusSeconds(5));
+
+        assertThat(relay.relay()).isEqualTo(1);
+        assertThat(registry.get("outbox.late").counter().count()).isEqualTo(before + 1);
+    }
+
+    @Test
+    void eventsTheSinkRejectsAreKeptForTheNextRun() {
+        SlotDTO slot = slot("Flaky Court");
+        sink.failingVenues.add(slot.getVenueId());
+        try {
+            assertThat(relay.relay()).isZero();
+        } finally {
+            sink.failingVenues.clear();
+        }
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM outbox_event", Integer.class)).isEqualTo(1);
+
+        assertThat(relay.relay()).isEqualTo(1);
+        assertThat(eventsOf(slot.getVenueId())).extracting(OutboxEventDTO::getSlotId).containsExactly(slot.getId());
+    }
+
+    private List<OutboxEventDTO> eventsOf(Long venueId) {
+        return sink.batches.stream()
+                .flatMap(List::stream)
+                .filter(event -> event.getVenueId().equals(venueId))
+                .collect(Collectors.toList());
+    }
+
+    private SlotDTO slot(String venueName) {
+        Long venueId = venueService.create(CreateVenueRequest.builder()
+                .name(venueName).location("Town").sportId("badminton").build()).getId();
+        LocalDateTime start = LocalDateTime.now().plusDays(2).withMinute(0).withSecond(0).withNano(0);
+        return slotService.addSlot(venueId, new CreateSlotRequest(start, start.plusHours(1)));
+    }
+
+    static class RecordingSink implements OutboxSink {
+
+        final List<List<OutboxEventDTO>> batches = new ArrayList<>();
+        final Set<Long> failingVenues = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public void publish(List<OutboxEventDTO> events) {
+            if (failingVenues.contains(events.get(0).getVenueId())) {
+                throw new IllegalStateException("Sink unavailable");
+            }
+            batches.add(List.copyOf(events));
+        }
+    }
+
+    @TestConfiguration
+    static class SinkConfig {
+
+        @Bean
+        RecordingSink recordingSink() {
+            return new RecordingSink();
+        }
+    }
+}
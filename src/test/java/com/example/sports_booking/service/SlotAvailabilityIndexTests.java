@@ -0,0 +1,136 @@
+package com.example.sports_booking.service;
+
+import com.example.sports_booking.config.ShardRouter;
+import com.example.sports_booking.entity.SlotStatus;
+import com.example.sports_booking.repository.SlotJdbcRepository;
+import com.example.sports_booking.repository.SlotStatusView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class SlotAvailabilityIndexTests {
+
+    private static final LocalDate DAY = LocalDate.now().plusDays(1);
+    private static final LocalTime SIX = LocalTime.of(18, 0);
+    private static final LocalTime EIGHT = LocalTime.of(20, 0);
+
+    private final List<Object[]> loaded = new ArrayList<>();
+    private SlotAvailabilityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        SlotJdbcRepository repository = mock(SlotJdbcRepository.class);
+        doAnswer(invocation -> {
+            SlotJdbcRepository.SlotRangeHandler handler = invocation.getArgument(2);
+            loaded.forEach(row -> handler.accept((Long) row[0], (String) row[1], (LocalDateTime) row[2], (LocalDateTime) row[3]));
+            return null;
+        }).when(repository).streamAvailableSlotRanges(any(), any(), any());
+        index = new SlotAvailabilityIndex(repository, new ShardRouter(false, List.of()), true, 15, 30);
+    }
+
+    @Test
+    void backToBackSlotsCoverTheWindowUntilOneIsBooked() {
+        available(1L, "football", DAY, SIX, LocalTime.of(19, 0));
+        available(1L, "football", DAY, LocalTime.of(19, 0), EIGHT);
+        index.load();
+
+        assertThat(find("football", DAY, DAY, DayMatch.ANY, 0L)).containsEntry(1L, List.of(DAY));
+
+        index.onSlotStatusChanged(List.of(view(2L, 1L, "football", DAY.atTime(19, 0), DAY.atTime(EIGHT), SlotStatus.BOOKED)));
+        assertThat(find("football", DAY, DAY, DayMatch.ANY, 0L)).isEmpty();
+
+        index.onSlotStatusChanged(List.of(view(2L, 1L, "football", DAY.atTime(19, 0), DAY.atTime(EIGHT), SlotStatus.AVAILABLE)));
+        assertThat(find("football", DAY, DAY, DayMatch.ANY, 0L)).containsOnlyKeys(1L);
+    }
+
+    @Test
+    void aReloadPicksUpBookingsMadeThroughAnotherInstance() {
+        available(1L, "football", DAY, SIX, EIGHT);
+        available(2L, "football", DAY, SIX, EIGHT);
+        index.load();
+
+        // Venue 1 is booked elsewhere, so no event reaches this index
+        loaded.removeIf(row -> row[0].equals(1L));
+        assertThat(find("football", DAY, DAY, DayMatch.ANY, 0L)).containsOnlyKeys(1L, 2L);
+
+        index.reload();
+        assertThat(find("football", DAY, DAY, DayMatch.ANY, 0L)).containsOnlyKeys(2L);
+    }
+
+    @Test
+    void partlyCoveredBucketsAreNotFree() {
+        // 18:05 leaves the 18:00 bucket unmarked, so the window is not reported free
+        available(1L, "football", DAY, LocalTime.of(18, 5), EIGHT);
+        index.load();
+
+        assertThat(find("football", DAY, DAY, DayMatch.ANY, 0L)).isEmpty();
+        assertThat(index.findFree("football", null, DAY, DAY, LocalTime.of(18, 15), EIGHT, DayMatch.ANY, 0L, 10))
+                .containsOnlyKeys(1L);
+    }
+
+    @Test
+    void allRequiresEveryDayWhileAnyReportsTheFreeOnes() {
+        LocalDate next = DAY.plusDays(1);
+        available(1L, "football", DAY, SIX, EIGHT);
+        available(1L, "football", next, SIX, EIGHT);
+        available(2L, "football", DAY, SIX, EIGHT);
+        index.load();
+
+        assertThat(find("football", DAY, next, DayMatch.ALL, 0L)).containsOnlyKeys(1L);
+        assertThat(find("football", DAY, next, DayMatch.ANY, 0L))
+                .containsEntry(1L, List.of(DAY, next))
+                .containsEntry(2L, List.of(DAY));
+    }
+
+    @Test
+    void filtersBySportAndResumesAfterTheCursorVenue() {
+        available(1L, "football", DAY, SIX, EIGHT);
+        available(2L, "tennis", DAY, SIX, EIGHT);
+        available(3L, "football", DAY, SIX, EIGHT);
+        index.load();
+
+        assertThat(find("football", DAY, DAY, DayMatch.ANY, 0L)).containsOnlyKeys(1L, 3L);
+        assertThat(find("football", DAY, DAY, DayMatch.ANY, 1L)).containsOnlyKeys(3L);
+        assertThat(find(null, DAY, DAY, DayMatch.ANY, 0L).keySet()).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void answersNothingBeforeLoadingOrBeyondTheHorizon() {
+        available(1L, "football", DAY, SIX, EIGHT);
+        assertThat(find("football", DAY, DAY, DayMatch.ANY, 0L)).isNull();
+
+        index.load();
+        assertThat(find("football", DAY, DAY.plusDays(30), DayMatch.ANY, 0L)).isNull();
+    }
+
+    private Map<Long, List<LocalDate>> find(String sportId, LocalDate from, LocalDate to, DayMatch match, long after) {
+        return index.findFree(sportId, null, from, to, SIX, EIGHT, match, after, 10);
+    }
+
+    private void available(Long venueId, String sportId, LocalDate day, LocalTime start, LocalTime end) {
+        loaded.add(new Object[]{venueId, sportId, day.atTime(start), day.atTime(end)});
+    }
+
+    private static SlotStatusView view(Long id, Long venueId, String sportId, LocalDateTime start, LocalDateTime end,
+                                       SlotStatus status) {
+        return new SlotStatusView() {
+            public Long getId() { return id; }
+            public Long getVenueId() { return venueId; }
+            public String getSportId() { return sportId; }
+            public LocalDateTime getStartTime() { return start; }
+            public LocalDateTime getEndTime() { return end; }
+            public SlotStatus getStatus() { return status; }
+        };
+    }
+}
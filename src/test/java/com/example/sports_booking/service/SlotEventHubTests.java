@@ -0,0 +1,274 @@
+package com.example.sports_booking.service;
+
+import com.example.sports_booking.controller.SlotEventController;
+import com.example.sports_booking.entity.SlotStatus;
+import com.example.sports_booking.repository.SlotRepository;
+import com.example.sports_booking.repository.SlotStatusView;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class SlotEventHubTests {
+
+    private static final LocalDateTime START = LocalDateTime.now().plusDays(1).withHour(18).withMinute(0).withSecond(0).withNano(0);
+
+    private final Map<Long, SlotStatusView> slots = new ConcurrentHashMap<>();
+    private final List<SlotStatusView> heard = new CopyOnWriteArrayList<>();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SimpleMeterRegistry registry;
+    private SlotEventHub hub;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        SlotRepository repository = mock(SlotRepository.class);
+        when(repository.findStatusViews(any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(slots::get).collect(Collectors.toList());
+        });
+        registry = new SimpleMeterRegistry();
+        // Buffer of 3 and a ring of 8 events, so both limits are reached quickly
+        hub = new SlotEventHub(repository, List.of(heard::addAll), registry, 3, 8, 10, Duration.ofMinutes(1));
+        mvc = MockMvcBuilders.standaloneSetup(new SlotEventController(hub)).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        hub.stop();
+    }
+
+    @Test
+    void subscribersOnlyReceiveTheVenueOrSportTheyAskedFor() throws Exception {
+        MvcResult byVenue = subscribe(get("/slots/events").param("venueId", "1"));
+        MvcResult bySport = subscribe(get("/slots/events").param("sportId", "tennis"));
+        MvcResult everything = subscribe(get("/slots/events"));
+
+        slot(10L, 1L, "football", SlotStatus.BOOKED);
+        slot(20L, 2L, "tennis", SlotStatus.HELD);
+        commit(10L, 20L);
+
+        await(everything, events -> events.size() == 2);
+        await(byVenue, events -> events.size() == 1);
+        await(bySport, events -> events.size() == 1);
+        assertThat(slotEvents(byVenue)).extracting(event -> event.get("slotId")).containsExactly(10);
+        assertThat(slotEvents(bySport)).extracting(event -> event.get("slotId")).containsExactly(20);
+        assertThat(slotEvents(everything)).extracting(event -> event.get("status")).containsExactly("BOOKED", "HELD");
+        assertThat(heard).extracting(SlotStatusView::getId).containsExactly(10L, 20L);
+    }
+
+    @Test
+    void nothingIsPublishedWhenTheTransactionRollsBack() throws Exception {
+        MvcResult feed = subscribe(get("/slots/events"));
+        slot(10L, 1L, "football", SlotStatus.BOOKED);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            hub.publishAfterCommit(List.of(10L));
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.beforeCompletion();
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        commit(11L);
+        await(feed, events -> !events.isEmpty());
+        assertThat(slotEvents(feed)).extracting(event -> event.get("slotId")).containsExactly(11);
+        assertThat(heard).extracting(SlotStatusView::getId).containsExactly(11L);
+    }
+
+    @Test
+    void aChangeCommittedAfterANewerOneOfTheSameSlotIsDropped() throws Exception {
+        MvcResult feed = subscribe(get("/slots/events"));
+
+        slot(10L, 1L, "football", SlotStatus.HELD);
+        List<TransactionSynchronization> older = registered(10L);
+        older.forEach(synchronization -> synchronization.beforeCommit(false));
+        slot(10L, 1L, "football", SlotStatus.BOOKED);
+        List<TransactionSynchronization> newer = registered(10L);
+        newer.forEach(synchronization -> synchronization.beforeCommit(false));
+
+        newer.forEach(TransactionSynchronization::afterCommit);
+        older.forEach(TransactionSynchronization::afterCommit);
+
+        await(feed, events -> !events.isEmpty());
+        commit(11L);
+        await(feed, events -> events.size() == 2);
+        assertThat(slotEvents(feed)).extracting(event -> event.get("status")).containsExactly("BOOKED", "AVAILABLE");
+    }
+
+    @Test
+    void aReconnectingClientGetsWhatItMissed() throws Exception {
+        MvcResult first = subscribe(get("/slots/events").param("venueId", "1"));
+        commit(10L);
+        await(first, events -> events.size() == 1);
+        String lastEventId = lastEventId(first);
+
+        commit(11L);
+        slot(12L, 2L, "tennis", SlotStatus.BOOKED);
+        commit(12L);
+        commit(13L);
+
+        MvcResult resumed = subscribe(get("/slots/events").param("venueId", "1").header("Last-Event-ID", lastEventId));
+        await(resumed, events -> events.size() == 2);
+        assertThat(slotEvents(resumed)).extracting(event -> event.get("slotId")).containsExactly(11, 13);
+        assertThat(content(resumed)).doesNotContain("event:reset");
+    }
+
+    @Test
+    void resumingFromAPointNoLongerKeptSendsAReset() throws Exception {
+        MvcResult first = subscribe(get("/slots/events"));
+        commit(10L);
+        await(first, events -> events.size() == 1);
+        String lastEventId = lastEventId(first);
+
+        // The ring keeps 8 events
+        for (long id = 11; id <= 19; id++) {
+            commit(id);
+        }
+
+        MvcResult stale = subscribe(get("/slots/events").header("Last-Event-ID", lastEventId));
+        MvcResult restarted = subscribe(get("/slots/events").header("Last-Event-ID", "1-5"));
+        awaitContent(stale, content -> content.contains("event:reset"));
+        awaitContent(restarted, content -> content.contains("event:reset"));
+        assertThat(slotEvents(stale)).isEmpty();
+        assertThat(registry.get("slot.events.resets").tag("reason", "stale_resume").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void resumingWithMoreMissedEventsThanTheBufferSendsAReset() throws Exception {
+        MvcResult first = subscribe(get("/slots/events"));
+        commit(10L);
+        await(first, events -> events.size() == 1);
+        String lastEventId = lastEventId(first);
+
+        // Still in the ring, but more than the buffer of 3
+        for (long id = 11; id <= 14; id++) {
+            commit(id);
+        }
+
+        MvcResult resumed = subscribe(get("/slots/events").header("Last-Event-ID", lastEventId));
+        awaitContent(resumed, content -> content.contains("event:reset"));
+        assertThat(slotEvents(resumed)).isEmpty();
+    }
+
+    @Test
+    void heartbeatsAreSentOnSubscribeAndOnEveryBeat() throws Exception {
+        MvcResult feed = subscribe(get("/slots/events"));
+        awaitContent(feed, content -> heartbeats(content) == 1);
+
+        hub.heartbeat();
+        awaitContent(feed, content -> heartbeats(content) == 2);
+        assertThat(hub.subscriberCount()).isEqualTo(1);
+    }
+
+    private MvcResult subscribe(MockHttpServletRequestBuilder request) throws Exception {
+        return mvc.perform(request).andExpect(request().asyncStarted()).andReturn();
+    }
+
+    private void slot(Long id, Long venueId, String sportId, SlotStatus status) {
+        slots.put(id, view(id, venueId, sportId, status));
+    }
+
+    /** Commits a transaction that changed the given slots; unknown slots are available slots of venue 1. */
+    private void commit(Long... ids) {
+        for (Long id : ids) {
+            slots.putIfAbsent(id, view(id, 1L, "football", SlotStatus.AVAILABLE));
+        }
+        List<TransactionSynchronization> synchronizations = registered(ids);
+        synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+    }
+
+    private List<TransactionSynchronization> registered(Long... ids) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            hub.publishAfterCommit(List.of(ids));
+            return new ArrayList<>(TransactionSynchronizationManager.getSynchronizations());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private List<Map<String, Object>> slotEvents(MvcResult feed) throws Exception {
+        List<Map<String, Object>> events = new ArrayList<>();
+        // An event is written in parts; only those followed by their blank line are complete
+        String content = content(feed);
+        for (String block : content.substring(0, Math.max(0, content.lastIndexOf("\n\n"))).split("\n\n")) {
+            if (block.startsWith("event:slot\n")) {
+                String data = block.substring(block.indexOf("data:") + "data:".length());
+                events.add(objectMapper.readValue(data, Map.class));
+            }
+        }
+        return events;
+    }
+
+    private String lastEventId(MvcResult feed) throws Exception {
+        String content = content(feed);
+        int start = content.lastIndexOf("id:") + "id:".length();
+        return content.substring(start, content.indexOf('\n', start));
+    }
+
+    private static String content(MvcResult feed) throws Exception {
+        return feed.getResponse().getContentAsString();
+    }
+
+    private static long heartbeats(String content) {
+        return content.lines().filter(":heartbeat"::equals).count();
+    }
+
+    private void await(MvcResult feed, Predicate<List<Map<String, Object>>> condition) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.test(slotEvents(feed))) {
+            assertThat(System.nanoTime()).as("events received within 5s: %s", content(feed)).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static void awaitContent(MvcResult feed, Predicate<String> condition) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.test(content(feed))) {
+            assertThat(System.nanoTime()).as("content received within 5s: %s", content(feed)).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static SlotStatusView view(Long id, Long venueId, String sportId, SlotStatus status) {
+        return new SlotStatusView() {
+            public Long getId() { return id; }
+            public Long getVenueId() { return venueId; }
+            public String getSportId() { return sportId; }
+            public LocalDateTime getStartTime() { return START; }
+            public LocalDateTime getEndTime() { return START.plusHours(1); }
+            public SlotStatus getStatus() { return status; }
+        };
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.sports_booking.service;
+
+import com.example.sports_booking.dto.BookingDTO;
+import com.example.sports_booking.dto.CreateHoldRequest;
+import com.example.sports_booking.dto.CreateSlotRequest;
+import com.example.sports_booking.dto.CreateVenueRequest;
+import com.example.sports_booking.dto.HoldTokenRequest;
+import com.example.sports_booking.dto.SlotDTO;
+import com.example.sports_booking.dto.SlotHoldDTO;
+import com.example.sports_booking.exception.ResourceNotFoundException;
+import com.example.sports_booking.exception.SlotUnavailableException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:holds;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "booking.admission.enabled=false",
+        // Expired holds are left in place for the tests to confirm
+        "booking.hold.sweep-initial-delay=PT1H"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SlotHoldServiceTests {
+
+    @Autowired
+    SlotHoldService holdService;
+
+    @Autowired
+    BookingService bookingService;
+
+    @Autowired
+    VenueService venueService;
+
+    @Autowired
+    SlotService slotService;
+
+    @Autowired
+    JdbcTemplate jdbc;
+
+    @Autowired
+    MockMvc mvc;
+
+    @Test
+    void aConfirmedHoldBecomesABookingOfTheHoldingUser() {
+        SlotDTO slot = slot();
+        SlotHoldDTO hold = holdService.hold(slot.getId(), new CreateHoldRequest("paying-user"));
+        assertThat(slotStatus(slot)).isEqualTo("HELD");
+
+        BookingDTO booking = bookingService.confirmHold(slot.getId(), new HoldTokenRequest(hold.getHoldToken()));
+
+        assertThat(booking.getSlotId()).isEqualTo(slot.getId());
+        assertThat(booking.getUserName()).isEqualTo("paying-user");
+        assertThat(booking.getStatus()).isEqualTo("CONFIRMED");
+        assertThat(slotStatus(slot)).isEqualTo("BOOKED");
+        assertThat(jdbc.queryForObject("SELECT hold_token FROM slot WHERE id = ?", String.class, slot.getId())).isNull();
+    }
+
+    @Test
+    void aHoldIsOnlyConfirmedWithItsToken() {
+        SlotDTO slot = slot();
+        holdService.hold(slot.getId(), new CreateHoldRequest("paying-user"));
+
+        assertThatThrownBy(() -> bookingService.confirmHold(slot.getId(), new HoldTokenRequest("not-the-token")))
+                .isInstanceOf(SlotUnavailableException.class);
+
+        assertThat(slotStatus(slot)).isEqualTo("HELD");
+        assertThat(bookings(slot)).isZero();
+    }
+
+    @Test
+    void anExpiredHoldCannotBeConfirmed() {
+        SlotDTO slot = slot();
+        SlotHoldDTO hold = holdService.hold(slot.getId(), new CreateHoldRequest("slow-payer"));
+        jdbc.update("UPDATE slot SET hold_expires_at = ? WHERE id = ?", LocalDateTime.now().minusSeconds(1), slot.getId());
+
+        assertThatThrownBy(() -> bookingService.confirmHold(slot.getId(), new HoldTokenRequest(hold.getHoldToken())))
+                .isInstanceOf(SlotUnavailableException.class)
+                .hasMessageContaining("expired");
+
+        assertThat(bookings(slot)).isZero();
+    }
+
+    @Test
+    void aHoldIsOnlyReleasedWithItsToken() {
+        SlotDTO slot = slot();
+        SlotHoldDTO hold = holdService.hold(slot.getId(), new CreateHoldRequest("undecided-user"));
+
+        assertThatThrownBy(() -> holdService.release(slot.getId(), new HoldTokenRequest("not-the-token")))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThat(slotStatus(slot)).isEqualTo("HELD");
+
+        holdService.release(slot.getId(), new HoldTokenRequest(hold.getHoldToken()));
+        assertThat(slotStatus(slot)).isEqualTo("AVAILABLE");
+        assertThatThrownBy(() -> holdService.release(slot.getId(), new HoldTokenRequest(hold.getHoldToken())))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void aHeldSlotCannotBeBookedDirectly() throws Exception {
+        SlotDTO slot = slot();
+        holdService.hold(slot.getId(), new CreateHoldRequest("paying-user"));
+
+        mvc.perform(post("/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"slotId\":" + slot.getId() + ",\"userName\":\"other-user\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Slot is on hold"));
+
+        assertThat(slotStatus(slot)).isEqualTo("HELD");
+        assertThat(bookings(slot)).isZero();
+    }
+
+    private String slotStatus(SlotDTO slot) {
+        return jdbc.queryForObject("SELECT status FROM slot WHERE id = ?", String.class, slot.getId());
+    }
+
+    private int bookings(SlotDTO slot) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM booking WHERE slot_id = ?", Integer.class, slot.getId());
+    }
+
+    private SlotDTO slot() {
+        Long venueId = venueService.create(CreateVenueRequest.builder()
+                .name("Hold Court").location("Town").sportId("badminton").build()).getId();
+        LocalDateTime start = LocalDateTime.now().plusDays(2).withMinute(0).withSecond(0).withNano(0);
+        return slotService.addSlot(venueId, new CreateSlotRequest(start, start.plusHours(1)));
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.sports_booking.service;
+
+import com.example.sports_booking.repository.SlotInterval;
+import com.example.sports_booking.repository.SlotRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SlotIntervalIndexTests {
+
+    private static final Long VENUE = 1L;
+    private static final LocalDateTime NINE = LocalDateTime.of(2030, 5, 1, 9, 0);
+    private static final LocalDateTime TEN = NINE.plusHours(1);
+    private static final LocalDateTime ELEVEN = NINE.plusHours(2);
+    private static final LocalDateTime NOON = NINE.plusHours(3);
+    private static final int STATUS_COMMITTED = TransactionSynchronization.STATUS_COMMITTED;
+    private static final int STATUS_ROLLED_BACK = TransactionSynchronization.STATUS_ROLLED_BACK;
+
+    private final List<SlotInterval> stored = new ArrayList<>();
+    private SlotRepository repository;
+    private SlotIntervalIndex index;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(SlotRepository.class);
+        when(repository.findIntervalsByVenueId(VENUE)).thenAnswer(invocation -> new ArrayList<>(stored));
+        index = new SlotIntervalIndex(repository);
+        stored.add(interval(TEN, ELEVEN));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void slotsThatOnlyTouchAtTheirEdgesDoNotOverlap() {
+        inTransaction(STATUS_ROLLED_BACK, lock -> {
+            assertThat(lock.overlaps(NINE, TEN)).isFalse();
+            assertThat(lock.overlaps(ELEVEN, NOON)).isFalse();
+            assertThat(lock.overlaps(NINE, TEN.plusMinutes(1))).isTrue();
+            assertThat(lock.overlaps(ELEVEN.minusMinutes(1), NOON)).isTrue();
+            assertThat(lock.overlaps(TEN.plusMinutes(15), TEN.plusMinutes(45))).isTrue();
+            assertThat(lock.overlaps(NINE, NOON)).isTrue();
+        });
+    }
+
+    @Test
+    void slotsRecordedInTheSameTransactionAreCheckedToo() {
+        inTransaction(STATUS_ROLLED_BACK, lock -> {
+            lock.recordInsert(ELEVEN, NOON);
+            assertThat(lock.overlaps(ELEVEN.plusMinutes(30), NOON.plusMinutes(30))).isTrue();
+            assertThat(lock.firstOverlap(List.of(range(NINE, TEN), range(NOON.minusMinutes(1), NOON))))
+                    .containsExactly(NOON.minusMinutes(1), NOON);
+        });
+    }
+
+    @Test
+    void slotsOfARolledBackTransactionAreDiscardedAndCommittedOnesKept() {
+        inTransaction(STATUS_ROLLED_BACK, lock -> lock.recordInsert(ELEVEN, NOON));
+        inTransaction(STATUS_COMMITTED, lock -> {
+            assertThat(lock.overlaps(ELEVEN, NOON)).isFalse();
+            lock.recordInsert(NINE, TEN);
+        });
+        inTransaction(STATUS_ROLLED_BACK, lock -> assertThat(lock.overlaps(NINE, TEN)).isTrue());
+        verify(repository, times(1)).findIntervalsByVenueId(VENUE);
+    }
+
+    @Test
+    void anEvictedVenueIsReloadedFromTheTable() {
+        inTransaction(STATUS_ROLLED_BACK, lock -> assertThat(lock.overlaps(NINE, TEN)).isFalse());
+
+        // A slot written elsewhere, then the venue is evicted, e.g. by an archive batch
+        stored.add(interval(NINE, TEN));
+        TransactionSynchronizationManager.initSynchronization();
+        index.evictAfterCommit(VENUE);
+        complete(STATUS_COMMITTED);
+
+        inTransaction(STATUS_ROLLED_BACK, lock -> assertThat(lock.overlaps(NINE, TEN)).isTrue());
+        verify(repository, times(2)).findIntervalsByVenueId(VENUE);
+    }
+
+    @Test
+    void aRangeTheIndexFindsFreeIsCheckedAgainstTheTable() {
+        inTransaction(STATUS_ROLLED_BACK, lock -> assertThat(lock.overlaps(NINE, TEN)).isFalse());
+
+        // Another instance adds a slot this one never heard of
+        stored.add(interval(NINE, TEN));
+        when(repository.findOverlappingIntervals(eq(VENUE), any(), any())).thenReturn(List.of(interval(NINE, TEN)));
+
+        inTransaction(STATUS_ROLLED_BACK, lock -> assertThat(lock.overlaps(NINE.plusMinutes(30), TEN)).isTrue());
+        when(repository.findOverlappingIntervals(eq(VENUE), any(), any())).thenReturn(List.of());
+        // The contradicted venue was dropped and is reloaded with the missing slot
+        inTransaction(STATUS_ROLLED_BACK, lock -> assertThat(lock.overlaps(NINE, TEN)).isTrue());
+        verify(repository, times(2)).findIntervalsByVenueId(VENUE);
+    }
+
+    private void inTransaction(int outcome, Consumer<SlotIntervalIndex.VenueLock> work) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            work.accept(index.lockVenue(VENUE));
+        } finally {
+            complete(outcome);
+        }
+    }
+
+    private static void complete(int outcome) {
+        List<TransactionSynchronization> synchronizations = new ArrayList<>(TransactionSynchronizationManager.getSynchronizations());
+        TransactionSynchronizationManager.clearSynchronization();
+        if (outcome == STATUS_COMMITTED) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(outcome));
+    }
+
+    private static LocalDateTime[] range(LocalDateTime start, LocalDateTime end) {
+        return new LocalDateTime[]{start, end};
+    }
+
+    private static SlotInterval interval(LocalDateTime start, LocalDateTime end) {
+        return new SlotInterval() {
+            public LocalDateTime getStartTime() { return start; }
+            public LocalDateTime getEndTime() { return end; }
+        };
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.sports_booking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SportCatalogClientTests {
+
+    private static final String CATALOG =
+            "{\"data\":[{\"sport_id\":7061509,\"sport_name\":\"Badminton\"},{\"sport_id\":7020104,\"sport_name\":\"Football\"}]}";
+
+    @TempDir
+    Path tempDir;
+
+    private HttpServer server;
+    private volatile int status = 200;
+    private volatile String body = CATALOG;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/sportslist/", exchange -> {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+    }
+
+    @Test
+    void fetchesFromUpstreamAndWritesSnapshot() {
+        SportCatalogClient client = client();
+
+        SportCatalogClient.Catalog catalog = client.fetch();
+
+        assertThat(catalog.getSource()).isEqualTo(SportCatalogClient.Source.REMOTE);
+        assertThat(catalog.getSports()).containsExactly(
+                Map.entry("7061509", "Badminton"), Map.entry("7020104", "Football"));
+        assertThat(tempDir.resolve("sports.json")).exists();
+    }
+
+    @Test
+    void fallsBackToSnapshotWhenUpstreamFails() {
+        SportCatalogClient client = client();
+        client.fetch();
+
+        status = 503;
+        body = "unavailable";
+        SportCatalogClient.Catalog catalog = client.fetch();
+
+        assertThat(catalog.getSource()).isEqualTo(SportCatalogClient.Source.SNAPSHOT);
+        assertThat(catalog.getSports()).containsKeys("7061509", "7020104");
+    }
+
+    @Test
+    void failsWithoutUpstreamOrSnapshot() throws IOException {
+        server.stop(0);
+        Files.deleteIfExists(tempDir.resolve("sports.json"));
+
+        assertThatThrownBy(() -> client().fetch()).isInstanceOf(IllegalStateException.class);
+    }
+
+    private SportCatalogClient client() {
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/sportslist/";
+        return new SportCatalogClient(new RestTemplateBuilder(), new ObjectMapper(), url,
+                Duration.ofMillis(500), Duration.ofSeconds(1), tempDir.resolve("sports.json"));
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.sports_booking.service;
+
+import com.example.sports_booking.dto.SportSyncResultDTO;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sport-sync;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "sports.sync.enabled=true",
+        // Runs are driven by the test
+        "sports.sync.initial-delay=PT1H",
+        "sports.sync.snapshot-file=target/sport-sync-test/sports-snapshot.json"
+})
+@ActiveProfiles("test")
+class SportSyncServiceTests {
+
+    private static HttpServer server;
+    private static volatile String catalog;
+
+    @Autowired
+    SportSyncService syncService;
+
+    @Autowired
+    JdbcTemplate jdbc;
+
+    @Autowired
+    MeterRegistry registry;
+
+    @DynamicPropertySource
+    static void upstream(DynamicPropertyRegistry registry) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/sportslist/", exchange -> {
+            byte[] bytes = catalog.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.start();
+        registry.add("sports.sync.url", () -> "http://127.0.0.1:" + server.getAddress().getPort() + "/sportslist/");
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        server.stop(0);
+    }
+
+    @Test
+    void syncWritesOnlyTheDifferenceAndKeepsSportsDroppedUpstream() {
+        // Known only locally, as if the catalog had dropped it before
+        jdbc.update("INSERT INTO sport (sport_id, sport_name, created_at) VALUES (?, ?, ?)",
+                "7000001", "Cricket", LocalDateTime.now());
+        catalog = catalog(Map.of("7061509", "Badminton", "7020104", "Football"));
+
+        SportSyncResultDTO seeded = syncService.sync();
+
+        assertThat(seeded.getSource()).isEqualTo("REMOTE");
+        assertThat(seeded.getFetched()).isEqualTo(2);
+        assertThat(seeded.getInserted()).isEqualTo(2);
+        assertThat(seeded.getRenamed()).isZero();
+        assertThat(sports()).containsOnly(
+                Map.entry("7000001", "Cricket"),
+                Map.entry("7061509", "Badminton"),
+                Map.entry("7020104", "Football"));
+
+        // Badminton renamed, Football dropped, Tennis added
+        catalog = catalog(Map.of("7061509", "Badminton Doubles", "7011808", "Tennis"));
+        LocalDateTime footballCreated = createdAt("7020104");
+
+        SportSyncResultDTO changed = syncService.sync();
+
+        assertThat(changed.getFetched()).isEqualTo(2);
+        assertThat(changed.getInserted()).isEqualTo(1);
+        assertThat(changed.getRenamed()).isEqualTo(1);
+        // Sports missing upstream are kept, since venues may still refer to them
+        assertThat(sports()).containsOnly(
+                Map.entry("7000001", "Cricket"),
+                Map.entry("7061509", "Badminton Doubles"),
+                Map.entry("7020104", "Football"),
+                Map.entry("7011808", "Tennis"));
+        assertThat(createdAt("7020104")).isEqualTo(footballCreated);
+
+        SportSyncResultDTO unchanged = syncService.sync();
+        assertThat(unchanged.getInserted()).isZero();
+        assertThat(unchanged.getRenamed()).isZero();
+        assertThat(registry.get("sports.sync").tag("outcome", "remote").timer().count()).isEqualTo(3);
+        assertThat(registry.get("sports.sync.changes").tag("kind", "inserted").counter().count()).isEqualTo(3);
+        assertThat(registry.get("sports.sync.changes").tag("kind", "renamed").counter().count()).isEqualTo(1);
+        assertThat(registry.get("sports.sync.catalog.size").gauge().value()).isEqualTo(2);
+        assertThat(registry.get("sports.sync.last.success").gauge().value()).isPositive();
+    }
+
+    private Map<String, String> sports() {
+        return jdbc.queryForList("SELECT sport_id, sport_name FROM sport").stream()
+                .collect(Collectors.toMap(row -> (String) row.get("sport_id"), row -> (String) row.get("sport_name")));
+    }
+
+    private LocalDateTime createdAt(String sportId) {
+        return jdbc.queryForObject("SELECT created_at FROM sport WHERE sport_id = ?", LocalDateTime.class, sportId);
+    }
+
+    private static String catalog(Map<String, String> sports) {
+        return sports.entrySet().stream()
+                .map(sport -> "{\"sport_id\":" + sport.getKey() + ",\"sport_name\":\"" + sport.getValue() + "\"}")
+                .collect(Collectors.joining(",", "{\"data\":[", "]}"));
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.sports_booking.service;
+
+import com.example.sports_booking.config.ShardRouter;
+import com.example.sports_booking.dto.GeoRadius;
+import com.example.sports_booking.repository.VenueLocationView;
+import com.example.sports_booking.repository.VenueRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class VenueGeoIndexTests {
+
+    private final VenueRepository repository = mock(VenueRepository.class);
+    private VenueGeoIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(repository.findLocated()).thenReturn(List.of(
+                venue(1L, "football", 12.9716, 77.5946),   // Bengaluru centre
+                venue(2L, "football", 12.9352, 77.6245),   // ~5 km south-east
+                venue(3L, "tennis", 12.9784, 77.6408),     // ~5 km east
+                venue(4L, "football", 13.1986, 77.7066),   // airport, ~28 km north
+                venue(5L, "football", -16.5, 179.99),      // Fiji, east of the antimeridian
+                venue(6L, "football", -16.5, -179.99)));   // ...and just west of it
+        index = new VenueGeoIndex(repository, new ShardRouter(false, List.of()), 5, 100);
+        index.load();
+    }
+
+    @Test
+    void returnsVenuesInsideTheRadiusNearestFirst() {
+        assertThat(index.findWithin(12.9716, 77.5946, 10, null, 10).keySet()).containsExactly(1L, 3L, 2L);
+        assertThat(index.findWithin(12.9716, 77.5946, 10, "football", 10).keySet()).containsExactly(1L, 2L);
+        assertThat(index.findWithin(12.9716, 77.5946, 30, "football", 2).keySet()).containsExactly(1L, 2L);
+        assertThat(index.findWithin(12.9716, 77.5946, 10, null, 10).get(2L)).isCloseTo(5.19, within(0.05));
+    }
+
+    @Test
+    void searchesAcrossTheAntimeridian() {
+        assertThat(index.findWithin(-16.5, 180, 5, null, 10).keySet()).containsExactlyInAnyOrder(5L, 6L);
+    }
+
+    @Test
+    void rejectsIncompleteOrOversizedCircles() {
+        assertThatThrownBy(() -> index.findWithin(new GeoRadius(12.9, null, 5.0), null, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> index.findWithin(new GeoRadius(12.9, 77.5, 500.0), null, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static VenueLocationView venue(Long id, String sportId, double latitude, double longitude) {
+        return new VenueLocationView() {
+            public Long getId() { return id; }
+            public String getSportId() { return sportId; }
+            public Double getLatitude() { return latitude; }
+            public Double getLongitude() { return longitude; }
+        };
+    }
+}
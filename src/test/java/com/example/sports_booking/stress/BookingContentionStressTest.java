@@ -0,0 +1,301 @@
+package com.example.sports_booking.stress;
+
+import com.example.sports_booking.repository.SlotRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hammers {@code POST /bookings} and {@code PUT /bookings/{id}/cancel} from many concurrent HTTP clients
+ * against a handful of hot slots, then checks the booking invariants against the database and against
+ * what the clients were told. Run with {@code mvn test -Pstress}; sizes are system properties
+ * ({@code stress.clients}, {@code stress.operations}, {@code stress.slots}, {@code stress.cancel-ratio}),
+ * and {@code -Dbooking.claim-mode=CONDITIONAL} switches the claim strategy under test.
+ */
+@Slf4j
+@Tag("stress")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:stress;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000",
+        "spring.datasource.hikari.maximum-pool-size=20",
+        // Measures contention on the slot rows themselves, so nothing is shed before it
+        "booking.admission.enabled=false",
+        "logging.level.com.example.sports_booking=WARN"
+})
+@ActiveProfiles("test")
+class BookingContentionStressTest {
+
+    private static final int CLIENTS = Integer.getInteger("stress.clients", 200);
+    private static final int OPERATIONS = Integer.getInteger("stress.operations", 50);
+    private static final int SLOTS = Integer.getInteger("stress.slots", 16);
+    private static final double CANCEL_RATIO = Double.parseDouble(System.getProperty("stress.cancel-ratio", "0.4"));
+
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    JdbcTemplate jdbc;
+
+    @Autowired
+    LockTimer lockTimer;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpClient http = HttpClient.newBuilder()
+            .executor(Executors.newFixedThreadPool(16))
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @Test
+    void concurrentBookAndCancelKeepInvariants() throws Exception {
+        long[] slotIds = seedSlots();
+
+        // Booking ids recently confirmed; cancels pick from here, so two clients may cancel the same booking
+        AtomicLongArray recent = new AtomicLongArray(SLOTS * 4);
+        AtomicLong recentCursor = new AtomicLong();
+
+        Samples bookLatency = new Samples();
+        Samples cancelLatency = new Samples();
+        Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+        LongAdder confirmed = new LongAdder();
+        LongAdder cancelled = new LongAdder();
+
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(CLIENTS);
+        for (int c = 0; c < CLIENTS; c++) {
+            String user = "client-" + c;
+            clients.execute(() -> {
+                try {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < OPERATIONS; i++) {
+                        long bookingId = recent.get(random.nextInt(recent.length()));
+                        if (bookingId != 0 && random.nextDouble() < CANCEL_RATIO) {
+                            int status = send(cancelLatency, "PUT", "/bookings/" + bookingId + "/cancel", null);
+                            count(outcomes, "cancel", status);
+                            if (status == 204) {
+                                cancelled.increment();
+                            }
+                        } else {
+                            long slotId = slotIds[random.nextInt(slotIds.length)];
+                            String body = "{\"slotId\":" + slotId + ",\"userName\":\"" + user + "\"}";
+                            Response response = sendForBody(bookLatency, "POST", "/bookings", body);
+                            count(outcomes, "book", response.status);
+                            if (response.status == 201) {
+                                confirmed.increment();
+                                long id = mapper.readTree(response.body).get("id").asLong();
+                                recent.set((int) (recentCursor.getAndIncrement() % recent.length()), id);
+                            }
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (IOException e) {
+                    count(outcomes, "io", 0);
+                    log.warn("Client {} failed", user, e);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        assertThat(done.await(10, TimeUnit.MINUTES)).as("clients finished").isTrue();
+        double seconds = (System.nanoTime() - began) / 1e9;
+        clients.shutdown();
+
+        report(seconds, bookLatency, cancelLatency, outcomes);
+
+        assertThat(jdbc.queryForList(
+                "SELECT slot_id FROM booking WHERE status = 'CONFIRMED' GROUP BY slot_id HAVING COUNT(*) > 1", Long.class))
+                .as("slots with more than one confirmed booking").isEmpty();
+        assertThat(jdbc.queryForList(
+                "SELECT s.id FROM slot s WHERE s.status = 'BOOKED' AND NOT EXISTS " +
+                        "(SELECT 1 FROM booking b WHERE b.slot_id = s.id AND b.status = 'CONFIRMED')", Long.class))
+                .as("booked slots without a confirmed booking").isEmpty();
+        assertThat(jdbc.queryForList(
+                "SELECT s.id FROM slot s WHERE s.status = 'AVAILABLE' AND EXISTS " +
+                        "(SELECT 1 FROM booking b WHERE b.slot_id = s.id AND b.status = 'CONFIRMED')", Long.class))
+                .as("available slots with a confirmed booking").isEmpty();
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM booking WHERE status = 'CONFIRMED'", Long.class))
+                .as("confirmed bookings vs. 201s minus 204s seen by clients")
+                .isEqualTo(confirmed.sum() - cancelled.sum());
+        assertThat(outcomes.keySet())
+                .as("no server errors or transport failures")
+                .allMatch(key -> !key.endsWith(" 500") && !key.startsWith("io"));
+    }
+
+    private long[] seedSlots() throws Exception {
+        Response venue = sendForBody(new Samples(), "POST", "/venues",
+                "{\"name\":\"Stress Arena\",\"location\":\"Nowhere\",\"sportId\":\"stress\"}");
+        long venueId = mapper.readTree(venue.body).get("id").asLong();
+
+        long[] ids = new long[SLOTS];
+        LocalDateTime first = LocalDateTime.of(2030, 1, 1, 6, 0);
+        for (int i = 0; i < SLOTS; i++) {
+            String body = "{\"startTime\":\"" + FORMAT.format(first.plusHours(i)) +
+                    "\",\"endTime\":\"" + FORMAT.format(first.plusHours(i + 1)) + "\"}";
+            JsonNode slot = mapper.readTree(sendForBody(new Samples(), "POST", "/venues/" + venueId + "/slots", body).body);
+            ids[i] = slot.get("id").asLong();
+        }
+        return ids;
+    }
+
+    private int send(Samples latency, String method, String path, String body) throws IOException, InterruptedException {
+        return sendForBody(latency, method, path, body).status;
+    }
+
+    private Response sendForBody(Samples latency, String method, String path, String body)
+            throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .timeout(Duration.ofSeconds(60))
+                .build();
+        long started = System.nanoTime();
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        latency.add(System.nanoTime() - started);
+        return new Response(response.statusCode(), response.body());
+    }
+
+    private static void count(Map<String, LongAdder> outcomes, String operation, int status) {
+        outcomes.computeIfAbsent(operation + " " + status, key -> new LongAdder()).increment();
+    }
+
+    private void report(double seconds, Samples book, Samples cancel, Map<String, LongAdder> outcomes) {
+        long requests = book.size() + cancel.size();
+        log.warn("Stress run: {} clients x {} operations on {} slots in {} s, {} req/s",
+                CLIENTS, OPERATIONS, SLOTS, String.format("%.1f", seconds), String.format("%.0f", requests / seconds));
+        log.warn("  book    {}", book.summary());
+        log.warn("  cancel  {}", cancel.summary());
+        log.warn("  lock    {} (time inside the slot claim statements)", lockTimer.samples.summary());
+        new TreeMap<>(outcomes).forEach((key, count) -> log.warn("  {} -> {}", key, count.sum()));
+    }
+
+    private static final class Response {
+        final int status;
+        final String body;
+
+        Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    /** Latency samples in nanoseconds. */
+    static final class Samples {
+        private long[] values = new long[1024];
+        private int size;
+
+        synchronized void add(long nanos) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = nanos;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized String summary() {
+            if (size == 0) {
+                return "n=0";
+            }
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            long total = Arrays.stream(sorted).sum();
+            return String.format("n=%d total=%.0fms mean=%.2fms p50=%.2fms p95=%.2fms p99=%.2fms max=%.2fms",
+                    size, total / 1e6, total / 1e6 / size, percentile(sorted, 50), percentile(sorted, 95),
+                    percentile(sorted, 99), sorted[size - 1] / 1e6);
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            int index = (int) Math.ceil(p / 100 * sorted.length) - 1;
+            return sorted[Math.max(index, 0)] / 1e6;
+        }
+    }
+
+    /**
+     * Times the repository calls that take the slot row lock, which is where contending bookings wait.
+     */
+    static final class LockTimer {
+        private static final Set<String> CLAIMS = Set.of("lockById", "lockAllById", "transitionStatus", "transitionStatusAll");
+
+        final Samples samples = new Samples();
+
+        SlotRepository wrap(SlotRepository target) {
+            return (SlotRepository) Proxy.newProxyInstance(SlotRepository.class.getClassLoader(),
+                    new Class<?>[]{SlotRepository.class}, (proxy, method, args) -> {
+                        long started = System.nanoTime();
+                        try {
+                            return method.invoke(target, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        } finally {
+                            if (CLAIMS.contains(method.getName())) {
+                                samples.add(System.nanoTime() - started);
+                            }
+                        }
+                    });
+        }
+    }
+
+    @TestConfiguration
+    static class LockTimingConfig {
+
+        @Bean
+        LockTimer lockTimer() {
+            return new LockTimer();
+        }
+
+        @Bean
+        static BeanPostProcessor slotRepositoryTimer(ObjectProvider<LockTimer> timer) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof SlotRepository repository ? timer.getObject().wrap(repository) : bean;
+                }
+            };
+        }
+    }
+}